@@ -0,0 +1,62 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Datasets for the micro-benchmarks, with a seeded random assignment so every constraint has matches to work on
+ * and every run starts from the same solution.
+ */
+final class BenchmarkPlans {
+
+    static final long SEED = 37L;
+
+    private BenchmarkPlans() {
+    }
+
+    static DeploymentPlan read(String dataset) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(dataset)))) {
+            return DeploymentPlanReader.read(new JsonFactory(), in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read dataset " + dataset + ".", e);
+        }
+    }
+
+    /**
+     * Like AllRequestsProcessedParityTest: most slots get a random service, server and dates, most requests
+     * a random slot, the rest stays unassigned.
+     */
+    static DeploymentPlan readAssigned(String dataset) {
+        DeploymentPlan plan = read(dataset);
+        Random random = new Random(SEED);
+        List<Date> dates = plan.getAvailableDates();
+        for (Deployment deployment : plan.getDeployments()) {
+            if (deployment.getRequests() == null) {
+                deployment.setRequests(new ArrayList<>());
+            }
+            if (random.nextInt(5) == 0) {
+                continue;
+            }
+            deployment.setService(plan.getServiceList().get(random.nextInt(plan.getServiceList().size())));
+            deployment.setServer(plan.getServerList().get(random.nextInt(plan.getServerList().size())));
+            Date from = dates.get(random.nextInt(dates.size()));
+            Date to = dates.get(random.nextInt(dates.size()));
+            deployment.setDateFrom(from.before(to) ? from : to);
+            deployment.setDateTo(from.before(to) ? to : from);
+        }
+        for (Request request : plan.getRequests()) {
+            if (random.nextInt(6) > 0) {
+                plan.getDeployments().get(random.nextInt(plan.getDeployments().size())).getRequests().add(request);
+            }
+        }
+        return plan;
+    }
+}
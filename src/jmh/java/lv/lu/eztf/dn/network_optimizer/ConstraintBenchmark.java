@@ -0,0 +1,133 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score calculation throughput per constraint, one constraint in the node network at a time (see
+ * {@link SingleConstraintProvider}), and for all of them together.
+ * <ul>
+ *     <li>fullRecompute: the working solution is set again and scored from scratch</li>
+ *     <li>incrementalServerChange: one deployment moves to the next server, then the score is updated</li>
+ *     <li>incrementalRequestMove: one request moves to the next deployment, then the score is updated</li>
+ * </ul>
+ * Other datasets are picked with -p dataset=..., for example data/generated/plan-10x.json.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstraintBenchmark {
+
+    @Param({"data/benchmark2.json"})
+    public String dataset;
+
+    @Param({
+            SingleConstraintProvider.ALL,
+            "Request must be assigned at least once",
+            "Request must not be assigned more than once",
+            "Request must match deployment service",
+            "Assigned request must have a valid server",
+            "Invalid date range",
+            "CPU capacity exceeded",
+            "RAM capacity exceeded",
+            "Storage capacity exceeded",
+            "Dependencies must be assigned",
+            "Service capacity violated during request moments",
+            "Service duplicated on multiple servers at same time",
+            "Deployments cost money",
+            "Request latency violated"
+    })
+    public String constraint;
+
+    private DeploymentPlan plan;
+    private InnerScoreDirector<DeploymentPlan, HardSoftLongScore> scoreDirector;
+    private List<Deployment> placedDeployments;
+    private List<Request> assignedRequests;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(DeploymentPlan.class)
+                .withEntityClasses(Deployment.class, Request.class)
+                .withEnvironmentMode(EnvironmentMode.NON_REPRODUCIBLE)
+                .withScoreDirectorFactory(new ScoreDirectorFactoryConfig()
+                        .withConstraintProviderClass(SingleConstraintProvider.class)
+                        .withConstraintProviderCustomProperties(Map.of("constraintName", constraint)));
+        DefaultSolverFactory<DeploymentPlan> solverFactory =
+                (DefaultSolverFactory<DeploymentPlan>) SolverFactory.<DeploymentPlan>create(solverConfig);
+        scoreDirector = solverFactory.<HardSoftLongScore>getScoreDirectorFactory().buildScoreDirector();
+        plan = BenchmarkPlans.readAssigned(dataset);
+        scoreDirector.setWorkingSolution(plan);
+        scoreDirector.calculateScore();
+
+        placedDeployments = new ArrayList<>();
+        for (Deployment deployment : plan.getDeployments()) {
+            if (deployment.getServer() != null) {
+                placedDeployments.add(deployment);
+            }
+        }
+        assignedRequests = new ArrayList<>();
+        for (Request request : plan.getRequests()) {
+            if (request.getDeployment() != null) {
+                assignedRequests.add(request);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    public Object fullRecompute() {
+        scoreDirector.setWorkingSolution(plan);
+        return scoreDirector.calculateScore();
+    }
+
+    @Benchmark
+    public Object incrementalServerChange() {
+        Deployment deployment = placedDeployments.get(step++ % placedDeployments.size());
+        List<Server> servers = plan.getServerList();
+        Server next = servers.get((servers.indexOf(deployment.getServer()) + 1) % servers.size());
+        scoreDirector.beforeVariableChanged(deployment, "server");
+        deployment.setServer(next);
+        scoreDirector.afterVariableChanged(deployment, "server");
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+
+    @Benchmark
+    public Object incrementalRequestMove() {
+        Request request = assignedRequests.get(step++ % assignedRequests.size());
+        Deployment source = request.getDeployment();
+        List<Deployment> deployments = plan.getDeployments();
+        Deployment destination = deployments.get((deployments.indexOf(source) + 1) % deployments.size());
+        int index = request.getPosition();
+        scoreDirector.beforeListVariableChanged(source, "requests", index, index + 1);
+        source.getRequests().remove(index);
+        scoreDirector.afterListVariableChanged(source, "requests", index, index);
+        int size = destination.getRequests().size();
+        scoreDirector.beforeListVariableChanged(destination, "requests", size, size);
+        destination.getRequests().add(request);
+        scoreDirector.afterListVariableChanged(destination, "requests", size, size + 1);
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+}
@@ -0,0 +1,72 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The helpers the constraints call most: the region latency lookup (RegionLatencyMatrix.latencyMs, which replaced
+ * the interRegionLatencyMs scan), the cost of a server interval and a service's dependency closure.
+ * Every call takes the next of a fixed set of random arguments.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelperBenchmark {
+
+    private static final int ARGUMENT_COUNT = 1024;
+
+    @Param({"data/benchmark2.json"})
+    public String dataset;
+
+    private RegionLatencyMatrix latencyMatrix;
+    private final Region[] fromRegions = new Region[ARGUMENT_COUNT];
+    private final Region[] toRegions = new Region[ARGUMENT_COUNT];
+    private final Server[] servers = new Server[ARGUMENT_COUNT];
+    private final int[] startDays = new int[ARGUMENT_COUNT];
+    private final int[] endDays = new int[ARGUMENT_COUNT];
+    private final Service[] services = new Service[ARGUMENT_COUNT];
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DeploymentPlan plan = BenchmarkPlans.read(dataset);
+        latencyMatrix = plan.getLatencyMatrix();
+        Random random = new Random(BenchmarkPlans.SEED);
+        List<Region> regions = plan.getRegions();
+        int firstDay = plan.getDayRange().get(0);
+        int dayCount = (int) plan.getDayRange().getSize();
+        for (int i = 0; i < ARGUMENT_COUNT; i++) {
+            fromRegions[i] = regions.get(random.nextInt(regions.size()));
+            toRegions[i] = regions.get(random.nextInt(regions.size()));
+            servers[i] = plan.getServerList().get(random.nextInt(plan.getServerList().size()));
+            startDays[i] = firstDay + random.nextInt(dayCount);
+            endDays[i] = startDays[i] + random.nextInt(dayCount);
+            services[i] = plan.getServiceList().get(random.nextInt(plan.getServiceList().size()));
+        }
+    }
+
+    @Benchmark
+    public int latencyMs() {
+        int i = step++ & (ARGUMENT_COUNT - 1);
+        return latencyMatrix.latencyMs(fromRegions[i], toRegions[i]);
+    }
+
+    @Benchmark
+    public long computeServerIntervalCost() {
+        int i = step++ & (ARGUMENT_COUNT - 1);
+        return NetworkOptimizationConstraintProvider.computeServerIntervalCost(servers[i], startDays[i], endDays[i]);
+    }
+
+    @Benchmark
+    public List<Service> totalContainedServices() {
+        int i = step++ & (ARGUMENT_COUNT - 1);
+        return services[i].totalContainedServices();
+    }
+}
@@ -0,0 +1,36 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * The constraints of NetworkOptimizationConstraintProvider, narrowed down to the one named by the constraintName
+ * custom property, or all of them for {@link #ALL}. Constraints left out never make it into the node network.
+ */
+@Setter
+public class SingleConstraintProvider implements ConstraintProvider {
+
+    public static final String ALL = "ALL";
+
+    private String constraintName = ALL;
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory factory) {
+        Constraint[] constraints = new NetworkOptimizationConstraintProvider().defineConstraints(factory);
+        if (ALL.equals(constraintName)) {
+            return constraints;
+        }
+        Constraint[] selected = Arrays.stream(constraints)
+                .filter(constraint -> constraint.getConstraintRef().constraintName().equals(constraintName))
+                .toArray(Constraint[]::new);
+        if (selected.length == 0) {
+            // A renamed constraint would otherwise benchmark an empty network
+            throw new IllegalArgumentException("No constraint named '" + constraintName + "'.");
+        }
+        return selected;
+    }
+}
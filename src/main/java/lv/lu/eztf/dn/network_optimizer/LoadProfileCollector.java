@@ -0,0 +1,96 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import ai.timefold.solver.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Incremental per-day load profile of a group of intervals.
+ * Every element adds its load on the days [start, end] (inclusive) and the result is the
+ * total excess over the capacity, summed over all days (load-days above capacity).
+ * The profile is kept as a sweep of load deltas, so adding or removing an element touches two keys.
+ */
+public final class LoadProfileCollector<A> implements UniConstraintCollector<A, LoadProfileCollector.LoadProfile, Long> {
+
+    private final ToIntFunction<A> startDay;
+    private final ToIntFunction<A> endDay;
+    private final ToLongFunction<A> load;
+    private final ToLongFunction<A> capacity;
+
+    private LoadProfileCollector(ToIntFunction<A> startDay, ToIntFunction<A> endDay,
+                                 ToLongFunction<A> load, ToLongFunction<A> capacity) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.load = load;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param capacity must be the same for every element of a group, typically read from the group key
+     */
+    public static <A> LoadProfileCollector<A> excessLoad(ToIntFunction<A> startDay, ToIntFunction<A> endDay,
+                                                         ToLongFunction<A> load, ToLongFunction<A> capacity) {
+        return new LoadProfileCollector<>(startDay, endDay, load, capacity);
+    }
+
+    @Override
+    public Supplier<LoadProfile> supplier() {
+        return LoadProfile::new;
+    }
+
+    @Override
+    public BiFunction<LoadProfile, A, Runnable> accumulator() {
+        return (profile, a) -> {
+            int start = startDay.applyAsInt(a);
+            int end = endDay.applyAsInt(a);
+            long amount = load.applyAsLong(a);
+            profile.capacity = capacity.applyAsLong(a);
+            profile.add(start, end, amount);
+            return () -> profile.add(start, end, -amount);
+        };
+    }
+
+    @Override
+    public Function<LoadProfile, Long> finisher() {
+        return LoadProfile::excess;
+    }
+
+    public static final class LoadProfile {
+
+        private final NavigableMap<Integer, Long> deltas = new TreeMap<>();
+        private long capacity;
+
+        private void add(int start, int end, long amount) {
+            shift(start, amount);
+            shift(end + 1, -amount);
+        }
+
+        private void shift(int day, long amount) {
+            deltas.compute(day, (key, value) -> {
+                long updated = (value == null ? 0L : value) + amount;
+                return updated == 0L ? null : updated;
+            });
+        }
+
+        private long excess() {
+            long total = 0L;
+            long running = 0L;
+            Integer previousDay = null;
+            for (Map.Entry<Integer, Long> entry : deltas.entrySet()) {
+                if (previousDay != null && running > capacity) {
+                    total += (running - capacity) * (entry.getKey() - previousDay);
+                }
+                running += entry.getValue();
+                previousDay = entry.getKey();
+            }
+            return total;
+        }
+    }
+}
@@ -1,14 +1,13 @@
 package lv.lu.eztf.dn.network_optimizer;
 
-import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.score.stream.*;
 import ai.timefold.solver.core.api.score.stream.common.ConnectedRange;
-import ai.timefold.solver.core.api.score.stream.uni.UniConstraintStream;
 import lv.lu.eztf.dn.network_optimizer.domain.*;
 
-import java.math.BigDecimal;
 import java.util.*;
-import static ai.timefold.solver.core.api.score.stream.ConstraintCollectors.sum;
+import java.util.function.ToLongFunction;
+import static ai.timefold.solver.core.api.score.stream.ConstraintCollectors.count;
 import static ai.timefold.solver.core.api.score.stream.Joiners.*;
 
 
@@ -38,38 +37,36 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
     }
     // HARD
     Constraint everyRequestAssigned(ConstraintFactory factory) {
-        return factory.forEach(Request.class)
+        return factory.forEachIncludingUnassigned(Request.class)
+                // owning deployment comes from the inverse shadow variable, uninitialized deployments don't count
                 .ifNotExists(Deployment.class,
-                        filtering((request, deployment) ->
-                                deployment.getRequests().contains(request)
-                        )
-                )
-                .penalize(HardSoftScore.ONE_HARD)
+                        equal(Request::getDeployment, deployment -> deployment))
+                .penalize(HardSoftLongScore.ONE_HARD)
                 .asConstraint("Request must be assigned at least once");
     }
     Constraint noRequestMultipleAssignments(ConstraintFactory factory) {
-        return factory.forEachUniquePair(
-                        Deployment.class,
-                        filtering((d1, d2) ->
-                                d1 != d2 && d1.getRequests().stream().anyMatch(d2.getRequests()::contains)
-                        )
-                )
-                .penalize(HardSoftScore.ONE_HARD)
+        // The list variable already keeps a request in at most one list, so this only guards hand-made input.
+        // Counting per request keeps it incremental instead of comparing every pair of request lists.
+        return factory.forEach(Deployment.class)
+                .flattenLast(Deployment::getRequests)
+                .groupBy(request -> request, count())
+                .filter((request, assignments) -> assignments > 1)
+                .penalize(HardSoftLongScore.ONE_HARD,
+                        (request, assignments) -> assignments - 1)
                 .asConstraint("Request must not be assigned more than once");
     }
 
 
     private Constraint requestServiceMustMatchDeploymentService(ConstraintFactory factory) {
         return factory.forEach(Request.class)
+                // joined (not read through the shadow variable) so service changes are seen incrementally
                 .join(Deployment.class,
-                        filtering((request, deployment) ->
-                                deployment.getRequests() != null
-                                        && deployment.getRequests().contains(request)))
+                        equal(Request::getDeployment, deployment -> deployment))
                 .filter((request, deployment) ->
                         deployment.getService() == null
                                 || deployment.getService().getName() == null
                                 || !request.getServiceName().equals(deployment.getService().getName()))
-                .penalize(HardSoftScore.ONE_HARD)
+                .penalize(HardSoftLongScore.ONE_HARD)
                 .asConstraint("Request must match deployment service");
     }
 
@@ -83,7 +80,7 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                     return 0;
                 })
                 .filter((val)->val > 0)
-                .penalize(HardSoftScore.ONE_HARD,
+                .penalize(HardSoftLongScore.ONE_HARD,
                         val -> {
                             return val;
                         })
@@ -92,44 +89,65 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
     Constraint validDateRange(ConstraintFactory factory) {
         return factory.forEach(Deployment.class)
                 .filter(d -> !d.hasValidDates())
-                .penalize(HardSoftScore.ONE_HARD)
+                .penalize(HardSoftLongScore.ONE_HARD)
                 .asConstraint("Invalid date range");
     }
     Constraint enoughCPU(ConstraintFactory factory) {
         return factory.forEach(Deployment.class)
                 // only count real placements
-                .filter(d -> d.getServer() != null && d.getService() != null)
-                // group by server, sum CPU used by its deployments
+                .filter(d -> d.getServer() != null && d.getService() != null && d.hasValidDates())
+                // group by server, sweep the CPU its deployments use over their active days
                 .groupBy(Deployment::getServer,
-                        sum(d -> (int) d.getService().getCpuPerInstance()))
-                // keep only servers that are over capacity
-                .filter((server, usedCpu) -> usedCpu > server.getCpuCores())
-                // penalize by the overload amount
-                .penalize(HardSoftScore.ONE_HARD,
-                        (server, usedCpu) -> usedCpu - server.getCpuCores())
+                        excessLoad(d -> toMilli(d.getService().getCpuPerInstance()),
+                                d -> toMilli(d.getServer().getCpuCores())))
+                // keep only servers that are over capacity on some day
+                .filter((server, excessCpu) -> excessCpu > 0)
+                // penalize by the overload amount, per day
+                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                        (server, excessCpu) -> fromMilliRoundingUp(excessCpu))
                 .asConstraint("CPU capacity exceeded");
     }
     Constraint enoughMemory(ConstraintFactory factory) {
         return factory.forEach(Deployment.class)
-                .filter(d -> d.getServer() != null && d.getService() != null)
+                .filter(d -> d.getServer() != null && d.getService() != null && d.hasValidDates())
                 .groupBy(Deployment::getServer,
-                        sum(d -> (int) d.getService().getRamPerInstance()))
-                .filter((server, usedRam) -> usedRam > server.getRamGB())
-                .penalize(HardSoftScore.ONE_HARD,
-                        (server, usedRam) -> (int) (usedRam - server.getRamGB()))
+                        excessLoad(d -> toMilli(d.getService().getRamPerInstance()),
+                                d -> toMilli(d.getServer().getRamGB())))
+                .filter((server, excessRam) -> excessRam > 0)
+                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                        (server, excessRam) -> fromMilliRoundingUp(excessRam))
                 .asConstraint("RAM capacity exceeded");
     }
     Constraint enoughStorage(ConstraintFactory factory) {
         return factory.forEach(Deployment.class)
-                .filter(d -> d.getServer() != null && d.getService() != null)
+                .filter(d -> d.getServer() != null && d.getService() != null && d.hasValidDates())
                 .groupBy(Deployment::getServer,
-                        sum(d -> (int) d.getService().getStoragePerInstance()))
-                .filter((server, usedStorage) -> usedStorage > server.getStorageGB())
-                .penalize(HardSoftScore.ONE_HARD,
-                        (server, usedStorage) -> (int) (usedStorage - server.getStorageGB()))
+                        excessLoad(d -> toMilli(d.getService().getStoragePerInstance()),
+                                d -> toMilli(d.getServer().getStorageGB())))
+                .filter((server, excessStorage) -> excessStorage > 0)
+                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                        (server, excessStorage) -> fromMilliRoundingUp(excessStorage))
                 .asConstraint("Storage capacity exceeded");
     }
 
+    /**
+     * Load profile over the days a deployment is active (dayFrom to dayTo, inclusive like request serving),
+     * so deployments sharing a server at different times don't compete for its capacity.
+     */
+    private static LoadProfileCollector<Deployment> excessLoad(ToLongFunction<Deployment> load,
+                                                               ToLongFunction<Deployment> capacity) {
+        return LoadProfileCollector.excessLoad(Deployment::getDayFrom, Deployment::getDayTo, load, capacity);
+    }
+
+    // Resources are floats, compared in thousandths instead of being truncated to int
+    private static long toMilli(float value) {
+        return Math.round(value * 1000d);
+    }
+
+    private static long fromMilliRoundingUp(long milli) {
+        return Math.ceilDiv(milli, 1000L);
+    }
+
 
     /**
      * Cost per active interval:
@@ -145,15 +163,15 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                 .groupBy(
                         Deployment::getServer,
                         ConstraintCollectors.toConnectedRanges(
-                                Deployment::getDateFrom,
-                                Deployment::getDateTo,
-                                (a, b) -> b.getTime() - a.getTime()   // MUST return a comparable numeric difference
+                                Deployment::getDayFrom,
+                                Deployment::getDayTo,
+                                (a, b) -> b - a   // epoch days, so the difference is the number of days
                         )
                 )
 
                 .flattenLast(connectedRangeChain -> connectedRangeChain.getConnectedRanges())
 
-                .penalize(HardSoftScore.ONE_SOFT,
+                .penalizeLong(HardSoftLongScore.ONE_SOFT,
                         (server, range) -> computeServerIntervalCost(server, range))
 
                 .asConstraint("Deployments cost money");
@@ -161,21 +179,21 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
 
     /**
      * Cost calculation performed inside CS constraint:
-     * allocation + daily × days + deallocation/
+     * allocation + daily × days + deallocation, in fixed-point micro-units (see Cost)
      */
-    private int computeServerIntervalCost(Server server, ConnectedRange range) {
-        var cost = server.getCost();
-
-        long millis = ((Date)(range.getEnd())).getTime() - ((Date)range.getStart()).getTime();
-        long days = Math.max(1, millis / (24L * 60 * 60 * 1000));  // treat same-day as 1 day
+    private long computeServerIntervalCost(Server server, ConnectedRange<Deployment, Integer, Integer> range) {
+        return computeServerIntervalCost(server, range.getStart(), range.getEnd());
+    }
 
-        BigDecimal allocation  = cost.getAllocation();
-        BigDecimal daily       = cost.getDaily().multiply(BigDecimal.valueOf(days));
-        BigDecimal deallocation = cost.getDeallocation();
+    /**
+     * Public for the micro-benchmarks under src/jmh and the greedy placement, which ranks servers by it
+     */
+    public static long computeServerIntervalCost(Server server, int startDay, int endDay) {
+        var cost = server.getCost();
 
-        BigDecimal total = allocation.add(daily).add(deallocation);
+        long days = Math.max(1, endDay - startDay);  // treat same-day as 1 day
 
-        return total.intValue(); // CS needs an int/long score impact
+        return cost.getAllocationMicros() + cost.getDailyMicros() * days + cost.getDeallocationMicros();
     }
 
     private Constraint allRequestsProcessed(ConstraintFactory factory) {
@@ -187,49 +205,39 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                                 depA.getServer() != null
                 )
 
-                // (depA, req)
+                // (depA, req) with the request moment inside depA's window
                 .join(Request.class,
-                        Joiners.filtering((parent, child) -> parent.getRequests().contains(child)))
-                .filter((depA, req) ->
-                        depA.getDateFrom() != null &&
-                                depA.getDateTo() != null &&
-                                !req.getDate().before(depA.getDateFrom()) &&
-                                !req.getDate().after(depA.getDateTo())
-                )
+                        equal(parent -> parent, Request::getDeployment),
+                        lessThanOrEqual(Deployment::getDayFrom, Request::getDay),
+                        greaterThanOrEqual(Deployment::getDayTo, Request::getDay))
 
                 // Expand to "services that must process the load":
-                // A itself + all dependencies of A
-                // (depA, req, serviceX)
-                .join(Service.class, filtering(
-                        (depA, req, serviceX) -> depA.getImpactedServices().contains(serviceX)
-
-                ))
-                // Find the deployment depX of serviceX on the same server
-                // (depA, req, serviceX, depX)
+                // A itself + all dependencies of A, from the flattened closure table
+                // (depA, req, serviceDependency)
+                .join(ServiceDependency.class,
+                        equal((depA, req) -> depA.getService(), ServiceDependency::getService))
+                // Find the deployment depX of the dependency on the same server, active at the request moment
+                // (depA, req, serviceDependency, depX)
                 .join(
                         Deployment.class,
                         equal(
-                                (depA, req, serviceX) -> serviceX,
+                                (depA, req, serviceDependency) -> serviceDependency.getDependsOnService(),
                                 Deployment::getService
                         ),
                         equal(
-                                (depA, req, serviceX) -> depA.getServer(),
+                                (depA, req, serviceDependency) -> depA.getServer(),
                                 Deployment::getServer
                         ),
-                        filtering((depA, req, serviceX, depX) ->
-                                depX.getDateFrom() != null &&
-                                        depX.getDateTo() != null &&
-                                        !req.getDate().before(depX.getDateFrom()) &&
-                                        !req.getDate().after(depX.getDateTo())
-                        )
+                        greaterThanOrEqual((depA, req, serviceDependency) -> req.getDay(), Deployment::getDayFrom),
+                        lessThanOrEqual((depA, req, serviceDependency) -> req.getDay(), Deployment::getDayTo)
                 )
 
                 // Aggregate demand per actual deployment + time
                 .groupBy(
-                        (depA, req, serviceX, depX) -> depX,
-                        (depA, req, serviceX, depX) -> req.getDate(),
+                        (depA, req, serviceDependency, depX) -> depX,
+                        (depA, req, serviceDependency, depX) -> req.getDate(),
                         ConstraintCollectors.sum(
-                                (depA, req, serviceX, depX) -> req.getEstimatedQueryCount()
+                                (depA, req, serviceDependency, depX) -> req.getEstimatedQueryCount()
                         )
                 )
 
@@ -238,7 +246,7 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                         demand > depX.getService().maxRequests()
                 )
                 .penalize(
-                        HardSoftScore.ONE_HARD,
+                        HardSoftLongScore.ONE_HARD,
                         (depX, date, demand) ->
                                 demand - depX.getService().maxRequests()
                 )
@@ -253,7 +261,7 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                 .ifNotExists(Deployment.class,
                         filtering((Service service, Deployment dep) ->
                                 dep.getService() == service))
-                .penalize(HardSoftScore.ONE_HARD)
+                .penalize(HardSoftLongScore.ONE_HARD)
                 .asConstraint("Dependencies must be assigned");
     }
 
@@ -265,7 +273,7 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                                 d -> d.getService() == null ? null : d.getService().getName()),
 
                         // Overlapping intervals
-                        overlapping(Deployment::getDateFrom, Deployment::getDateTo),
+                        overlapping(Deployment::getDayFrom, Deployment::getDayTo),
 
                         // Different servers
                         filtering((d1, d2) ->
@@ -274,22 +282,17 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                                         d1.getServer().getId() != d2.getServer().getId())
                 )
 
-                .penalize(HardSoftScore.ONE_HARD)
+                .penalize(HardSoftLongScore.ONE_HARD)
                 .asConstraint("Service duplicated on multiple servers at same time");
     }
     private Constraint latencyViolation(ConstraintFactory factory) {
 
-        // Single tuple containing all latencies(timefold does not have issues with this)
-        UniConstraintStream<List<InterRegionLatency>> latencyListStream =
-                factory.forEach(InterRegionLatency.class)
-                        .groupBy(ConstraintCollectors.toList());
-
         var depWithRequests = factory.forEach(Deployment.class)
                 .filter(dep -> dep.getService() != null
                         && dep.getServer() != null
                         && dep.getRequests() != null
                         && !dep.getRequests().isEmpty())
-                .join(Request.class, Joiners.filtering((dep, req)->dep.getRequests().contains(req)));
+                .join(Request.class, equal(dep -> dep, Request::getDeployment));
 
         // Case 1 there exists at least one dependency deployment match -> compute max dep latency via max() collector.
         var withDeps = depWithRequests
@@ -299,15 +302,15 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                         filtering((dep, request, depOther) ->
                                 depOther.getServer() != null
                                         && depOther.getService() != null
-                                        && dep.getImpactedServices() != null
-                                        && dep.getImpactedServices().contains(depOther.getService())
+                                        && dep.impacts(depOther.getService())
                         ))
-                .join(latencyListStream)
+                // Single immutable fact, every lookup is an array read
+                .join(RegionLatencyMatrix.class)
                 .groupBy(
-                        (dep, request, depOther, il) -> dep,
-                        (dep, request, depOther, il) -> request,
-                        ConstraintCollectors.max((Deployment dep, Request request, Deployment depOther, List<InterRegionLatency> il) -> latencyBetweenDeploymentsMs(dep, depOther, il)),
-                        ConstraintCollectors.max((Deployment dep, Request request, Deployment depOther, List<InterRegionLatency> il) -> requestLatencyToDeploymentMs(request, dep, il))
+                        (dep, request, depOther, lm) -> dep,
+                        (dep, request, depOther, lm) -> request,
+                        ConstraintCollectors.max((Deployment dep, Request request, Deployment depOther, RegionLatencyMatrix lm) -> latencyBetweenDeploymentsMs(dep, depOther, lm)),
+                        ConstraintCollectors.max((Deployment dep, Request request, Deployment depOther, RegionLatencyMatrix lm) -> requestLatencyToDeploymentMs(request, dep, lm))
                 )
                 .map((dep, request, maxDepLatencyMs, requestLatencyMs) ->
                         slaViolationMs(request, requestLatencyMs, maxDepLatencyMs));
@@ -318,18 +321,18 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
                         filtering((dep, request, depOther) ->
                                 depOther.getServer() != null
                                         && depOther.getService() != null
-                                        && dep.getImpactedServices() != null
-                                        && dep.getImpactedServices().contains(depOther.getService())
+                                        && dep.impacts(depOther.getService())
                         ))
-                // (dep, request, ilList)
-                .join(latencyListStream)
-                .map((dep, request, il) ->
-                        slaViolationMs(request, requestLatencyToDeploymentMs(request, dep, il), 0));
+                // (dep, request, latencyMatrix)
+                .join(RegionLatencyMatrix.class)
+                .map((dep, request, lm) ->
+                        slaViolationMs(request, requestLatencyToDeploymentMs(request, dep, lm), 0));
 
         return withDeps
                 .concat(noDeps)
                 .filter(penaltyMs -> penaltyMs > 0)
-                .penalize(HardSoftScore.ONE_SOFT, penaltyMs -> penaltyMs)
+                // one ms over the SLA weighs as much as one cost unit
+                .penalizeLong(HardSoftLongScore.ONE_SOFT, penaltyMs -> penaltyMs * Cost.MICROS_PER_UNIT)
                 .asConstraint("Request latency violated");
     }
 
@@ -347,63 +350,21 @@ public class NetworkOptimizationConstraintProvider implements ConstraintProvider
         return 0;
     }
 
-    private int requestLatencyToDeploymentMs(Request request, Deployment dep, List<InterRegionLatency> il) {
-        if (request == null || dep == null || dep.getServer() == null || request.getSourceRegion() == null) {
-            return Integer.MAX_VALUE;
-        }
-        Region serverRegion = dep.getServer().getRegion();
-        Region requestRegion = request.getSourceRegion();
-        if (serverRegion == null || requestRegion == null || serverRegion.getName() == null || requestRegion.getName() == null) {
+    private int requestLatencyToDeploymentMs(Request request, Deployment dep, RegionLatencyMatrix lm) {
+        if (request == null || dep == null || dep.getServer() == null) {
             return Integer.MAX_VALUE;
         }
-
-        if (serverRegion.getName().equals(requestRegion.getName())) {
-            return floatToIntMs(serverRegion.getLatency());
-        }
-        return interRegionLatencyMs(requestRegion, serverRegion, il);
+        return lm.latencyMs(request.getSourceRegion(), dep.getServer().getRegion());
     }
 
-    private int latencyBetweenDeploymentsMs(Deployment dep1, Deployment dep2, List<InterRegionLatency> il) {
+    private int latencyBetweenDeploymentsMs(Deployment dep1, Deployment dep2, RegionLatencyMatrix lm) {
         if (dep1 == null || dep2 == null || dep1.getServer() == null || dep2.getServer() == null) {
             return Integer.MAX_VALUE;
         }
         if (dep1.getServer().getId() == dep2.getServer().getId()) {
             return 0;
         }
-        Region r1 = dep1.getServer().getRegion();
-        Region r2 = dep2.getServer().getRegion();
-        if (r1 == null || r2 == null || r1.getName() == null || r2.getName() == null) {
-            return Integer.MAX_VALUE;
-        }
-
-        if (r1.getName().equals(r2.getName())) {
-            return floatToIntMs(r1.getLatency());
-        }
-        return interRegionLatencyMs(r1, r2, il);
-    }
-
-    private int interRegionLatencyMs(Region r1, Region r2, List<InterRegionLatency> il) {
-        if (il == null || r1 == null || r2 == null || r1.getName() == null || r2.getName() == null) {
-            return Integer.MAX_VALUE;
-        }
-        String a = r1.getName();
-        String b = r2.getName();
-        for (InterRegionLatency latency : il) {
-            if (latency == null || latency.getRegion1() == null || latency.getRegion2() == null) {
-                continue;
-            }
-            String x = latency.getRegion1().getName();
-            String y = latency.getRegion2().getName();
-            if (x == null || y == null) {
-                continue;
-            }
-
-            boolean match = (x.equals(a) && y.equals(b)) || (x.equals(b) && y.equals(a));
-            if (match) {
-                return floatToIntMs(latency.getLatency());
-            }
-        }
-        return Integer.MAX_VALUE;
+        return lm.latencyMs(dep1.getServer().getRegion(), dep2.getServer().getRegion());
     }
 
     private int floatToIntMs(float value) {
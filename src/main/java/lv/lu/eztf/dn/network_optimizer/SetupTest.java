@@ -2,7 +2,7 @@ package lv.lu.eztf.dn.network_optimizer;
 
 import ai.timefold.solver.core.api.score.ScoreExplanation;
 import ai.timefold.solver.core.api.score.ScoreManager;
-import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolutionManager;
 import ai.timefold.solver.core.api.solver.Solver;
 import ai.timefold.solver.core.api.solver.SolverFactory;
@@ -23,7 +23,7 @@ public class SetupTest {
         SolverFactory<DeploymentPlan> solverFactory = SolverFactory.create(
                 new SolverConfig()
                         .withSolutionClass(DeploymentPlan.class)
-                        .withEntityClasses(Deployment.class)
+                        .withEntityClasses(Deployment.class, Request.class)
                         .withConstraintProviderClass(NetworkOptimizationConstraintProvider.class)
                         .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
                         .withTerminationSpentLimit(Duration.ofSeconds(10))
@@ -74,7 +74,7 @@ public class SetupTest {
         plan.setLatencies(latencyList);
         // SOLVE
         DeploymentPlan result = solver.solve(plan);
-        SolutionManager<DeploymentPlan, HardSoftScore> solutionManager = SolutionManager.create(solverFactory);
+        SolutionManager<DeploymentPlan, HardSoftLongScore> solutionManager = SolutionManager.create(solverFactory);
         System.out.println("\n===== SOLUTION =====");
         System.out.println("Score: " + result.getScore());
         for (Deployment d : result.getDeployments()) {
@@ -94,7 +94,7 @@ public class SetupTest {
         }
         System.out.println("======================\n");
         System.out.println("===== VIOLATIONS =====\n");
-        ScoreExplanation<DeploymentPlan, HardSoftScore> explanation = solutionManager.explain(result);
+        ScoreExplanation<DeploymentPlan, HardSoftLongScore> explanation = solutionManager.explain(result);
         explanation.getConstraintMatchTotalMap().forEach((constraint, matchTotal) -> {
 
             System.out.println(
@@ -0,0 +1,166 @@
+package lv.lu.eztf.dn.network_optimizer.benchmark;
+
+import ai.timefold.solver.benchmark.impl.result.PlannerBenchmarkResult;
+import ai.timefold.solver.benchmark.impl.result.SingleBenchmarkResult;
+import ai.timefold.solver.benchmark.impl.result.SolverBenchmarkResult;
+import ai.timefold.solver.benchmark.impl.result.SubSingleBenchmarkResult;
+import ai.timefold.solver.benchmark.impl.statistic.bestscore.BestScoreStatisticPoint;
+import ai.timefold.solver.benchmark.impl.statistic.bestscore.BestScoreSubSingleStatistic;
+import ai.timefold.solver.benchmark.config.statistic.ProblemStatisticType;
+import ai.timefold.solver.core.api.score.Score;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Machine-readable results of a benchmark run, one entry per solver config and dataset, written as JSON and CSV
+ * for CI. The JSON of an earlier run serves as the baseline of {@link #regressions}.
+ * <p>
+ * Time to feasible is the median over the sub single runs of the first best solution that was feasible, it needs
+ * the BEST_SCORE problem statistic and is null when that isn't collected or some run never became feasible.
+ */
+public final class BenchmarkSummary {
+
+    public record Entry(String solver, String dataset, String bestScore, boolean feasible,
+                        Long scoreCalculationSpeed, Long timeToFeasibleMillis) {
+
+        String key() {
+            return solver + " / " + dataset;
+        }
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private BenchmarkSummary() {
+    }
+
+    public static List<Entry> of(PlannerBenchmarkResult result) {
+        List<Entry> entries = new ArrayList<>();
+        for (SolverBenchmarkResult solverResult : result.getSolverBenchmarkResultList()) {
+            for (SingleBenchmarkResult singleResult : solverResult.getSingleBenchmarkResultList()) {
+                Score<?> score = singleResult.hasAllSuccess() ? singleResult.getAverageScore() : null;
+                entries.add(new Entry(solverResult.getName(), singleResult.getProblemBenchmarkResult().getName(),
+                        score == null ? null : score.toString(), score != null && score.isFeasible(),
+                        singleResult.getScoreCalculationSpeed(), timeToFeasibleMillis(singleResult)));
+            }
+        }
+        return entries;
+    }
+
+    private static Long timeToFeasibleMillis(SingleBenchmarkResult singleResult) {
+        List<Long> times = new ArrayList<>();
+        for (SubSingleBenchmarkResult subSingleResult : singleResult.getSubSingleBenchmarkResultList()) {
+            if (!(subSingleResult.getEffectiveSubSingleStatisticMap().get(ProblemStatisticType.BEST_SCORE)
+                    instanceof BestScoreSubSingleStatistic<?, ?> statistic)) {
+                return null;
+            }
+            // The points are written to CSV and dropped from memory once the run is over
+            statistic.unhibernatePointList();
+            Long time = null;
+            for (BestScoreStatisticPoint point : statistic.getPointList()) {
+                if (point.getScore().isFeasible()) {
+                    time = point.getTimeMillisSpent();
+                    break;
+                }
+            }
+            statistic.hibernatePointList();
+            if (time == null) {
+                return null;
+            }
+            times.add(time);
+        }
+        if (times.isEmpty()) {
+            return null;
+        }
+        Collections.sort(times);
+        return times.get(times.size() / 2);
+    }
+
+    public static void writeJson(List<Entry> entries, File file) throws IOException {
+        objectMapper.writeValue(file, entries);
+    }
+
+    public static List<Entry> readJson(File file) throws IOException {
+        return objectMapper.readValue(file, new TypeReference<>() {
+        });
+    }
+
+    public static void writeCsv(List<Entry> entries, File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("solver,dataset,bestScore,feasible,scoreCalculationSpeed,timeToFeasibleMillis");
+            for (Entry entry : entries) {
+                writer.println(String.join(",", quote(entry.solver()), quote(entry.dataset()),
+                        quote(entry.bestScore()), String.valueOf(entry.feasible()),
+                        Objects.toString(entry.scoreCalculationSpeed(), ""),
+                        Objects.toString(entry.timeToFeasibleMillis(), "")));
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Compares a run with a baseline, solver config and dataset pairs missing on either side are skipped.
+     * A pair regressed when it lost feasibility, its hard score dropped, or its soft score, score calculation
+     * speed or time to feasible got worse than the baseline by more than the threshold.
+     *
+     * @param threshold allowed relative change, 0.05 for 5%
+     * @return one line per regression, empty when there is none
+     */
+    public static List<String> regressions(List<Entry> baseline, List<Entry> current, double threshold) {
+        Map<String, Entry> currentByKey = new HashMap<>();
+        for (Entry entry : current) {
+            currentByKey.put(entry.key(), entry);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Entry before : baseline) {
+            Entry after = currentByKey.get(before.key());
+            if (after == null) {
+                continue;
+            }
+            if (before.feasible() && !after.feasible()) {
+                regressions.add(before.key() + ": no longer feasible (" + after.bestScore() + ")");
+            } else if (before.bestScore() != null) {
+                if (after.bestScore() == null) {
+                    regressions.add(before.key() + ": failed");
+                } else {
+                    HardSoftLongScore beforeScore = HardSoftLongScore.parseScore(before.bestScore());
+                    HardSoftLongScore afterScore = HardSoftLongScore.parseScore(after.bestScore());
+                    if (afterScore.hardScore() < beforeScore.hardScore()) {
+                        regressions.add(before.key() + ": hard score dropped from " + before.bestScore()
+                                + " to " + after.bestScore());
+                    } else if (afterScore.hardScore() == beforeScore.hardScore()
+                            && worse(beforeScore.softScore(), afterScore.softScore(), threshold, true)) {
+                        regressions.add(before.key() + ": soft score dropped from " + before.bestScore()
+                                + " to " + after.bestScore());
+                    }
+                }
+            }
+            if (worse(before.scoreCalculationSpeed(), after.scoreCalculationSpeed(), threshold, true)) {
+                regressions.add(before.key() + ": score calculation speed dropped from "
+                        + before.scoreCalculationSpeed() + "/s to " + after.scoreCalculationSpeed() + "/s");
+            }
+            if (worse(before.timeToFeasibleMillis(), after.timeToFeasibleMillis(), threshold, false)) {
+                regressions.add(before.key() + ": time to feasible grew from "
+                        + before.timeToFeasibleMillis() + " ms to " + after.timeToFeasibleMillis() + " ms");
+            }
+        }
+        return regressions;
+    }
+
+    private static boolean worse(Long before, Long after, double threshold, boolean higherIsBetter) {
+        if (before == null || after == null) {
+            return false;
+        }
+        double margin = Math.abs(before) * threshold;
+        return higherIsBetter ? after < before - margin : after > before + margin;
+    }
+}
@@ -0,0 +1,195 @@
+package lv.lu.eztf.dn.network_optimizer.benchmark;
+
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Generates synthetic DeploymentPlans of any size for scaling benchmarks. The same seed and size always give
+ * the same plan.
+ * <p>
+ * Regions are points on a plane, latency between them grows with distance. Services form independent application
+ * stacks of {@code dependencyDepth + 1} layers: the bottom layer (databases, caches) depends on nothing, every
+ * service above depends on one or two services of the layer below in its own stack. Stacks don't share services,
+ * since a whole dependency component has to run on one server per day. Requests ask for the services nothing
+ * depends on, the way clients only talk to front ends. Servers come in three sizes, every server has its own cost.
+ * <p>
+ * Usage:
+ *   mvn exec:java -Dexec.mainClass="lv.lu.eztf.dn.network_optimizer.benchmark.DeploymentPlanGenerator"
+ *
+ *   writes data/generated/plan-1x.json, plan-10x.json and plan-100x.json, the size ladder of
+ *   benchmarkConfigScaling.xml. The optional arguments are the output directory, the seed and the scale factors.
+ */
+public class DeploymentPlanGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentPlanGenerator.class);
+
+    private static final long DEFAULT_SEED = 42L;
+    private static final int[] DEFAULT_SCALES = {1, 10, 100};
+    private static final long FIRST_DAY = 20432; // 2025-12-10
+
+    // cpu cores, ram GB, storage GB, daily cost
+    private static final int[][] SERVER_SIZES = {{8, 16, 200, 7}, {16, 32, 600, 12}, {32, 64, 1200, 18}};
+
+    /**
+     * @param dependencyDepth layers of services above the bottom layer, 0 for services without dependencies
+     */
+    public record Size(int regions, int servers, int services, int dependencyDepth,
+                       int requests, int days, int deploymentSlots) {
+
+        /**
+         * Roughly the size of benchmark2.json
+         */
+        public static final Size BASE = new Size(4, 12, 9, 2, 60, 9, 40);
+
+        /**
+         * Servers, services, requests and deployment slots grow with the factor. Regions grow with its square root,
+         * the dependency depth and the planning horizon stay the same.
+         */
+        public Size scaled(int factor) {
+            int scaledRegions = (int) Math.ceil(regions * Math.sqrt(factor));
+            return new Size(scaledRegions, servers * factor, services * factor, dependencyDepth,
+                    requests * factor, days, deploymentSlots * factor);
+        }
+    }
+
+    private final long seed;
+
+    public DeploymentPlanGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        File outputDirectory = new File(args.length > 0 ? args[0] : "data/generated");
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        int[] scales = args.length > 2
+                ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : DEFAULT_SCALES;
+        outputDirectory.mkdirs();
+        DeploymentPlanGenerator generator = new DeploymentPlanGenerator(seed);
+        DeploymentPlanSolutionFileIO solutionFileIO = new DeploymentPlanSolutionFileIO();
+        for (int scale : scales) {
+            Size size = Size.BASE.scaled(scale);
+            File file = new File(outputDirectory, "plan-" + scale + "x.json");
+            solutionFileIO.write(generator.generate(size), file);
+            logger.info("Wrote {} with {}.", file, size);
+        }
+    }
+
+    public DeploymentPlan generate(Size size) {
+        // Every plan draws from its own sequence, so one size doesn't depend on which were generated before it
+        Random random = new Random(Objects.hash(seed, size.regions(), size.servers(), size.services(),
+                size.dependencyDepth(), size.requests(), size.days(), size.deploymentSlots()));
+
+        List<Region> regions = new ArrayList<>(size.regions());
+        double[][] positions = new double[size.regions()][];
+        for (int i = 0; i < size.regions(); i++) {
+            regions.add(new Region("region-" + (i + 1), 3 + random.nextInt(6)));
+            positions[i] = new double[]{random.nextDouble() * 100, random.nextDouble() * 100};
+        }
+        List<InterRegionLatency> latencies = new ArrayList<>();
+        for (int i = 0; i < size.regions(); i++) {
+            for (int j = i + 1; j < size.regions(); j++) {
+                double distance = Math.hypot(positions[i][0] - positions[j][0], positions[i][1] - positions[j][1]);
+                latencies.add(new InterRegionLatency(Math.round(10 + distance * 1.2), regions.get(i), regions.get(j)));
+            }
+        }
+
+        List<Cost> costs = new ArrayList<>(size.servers());
+        List<Server> servers = new ArrayList<>(size.servers());
+        for (int i = 0; i < size.servers(); i++) {
+            int[] serverSize = SERVER_SIZES[random.nextInt(SERVER_SIZES.length)];
+            // Prices vary a little by region and provider
+            BigDecimal daily = BigDecimal.valueOf(serverSize[3] * (90 + random.nextInt(21)), 2);
+            Cost cost = new Cost(i + 1, daily, daily.divide(BigDecimal.valueOf(2)),
+                    daily.divide(BigDecimal.valueOf(3), 2, RoundingMode.HALF_UP));
+            costs.add(cost);
+            Region region = regions.get(i % regions.size());
+            servers.add(new Server(i + 1, region.getName() + "-" + serverSize[0] + "c-" + (i / regions.size() + 1),
+                    serverSize[0], serverSize[1], serverSize[2], region, cost));
+        }
+
+        List<Service> services = generateServices(size, random);
+        List<Service> frontEnds = new ArrayList<>(services);
+        for (Service service : services) {
+            if (service.getDependencies() != null) {
+                frontEnds.removeAll(service.getDependencies());
+            }
+        }
+
+        List<Date> availableDates = new ArrayList<>(size.days());
+        for (int day = 0; day < size.days(); day++) {
+            availableDates.add(EpochDays.toDate((int) (FIRST_DAY + day)));
+        }
+
+        List<Request> requests = new ArrayList<>(size.requests());
+        for (int i = 0; i < size.requests(); i++) {
+            Service service = frontEnds.get(random.nextInt(frontEnds.size()));
+            requests.add(new Request(i + 1, service.getName(), availableDates.get(random.nextInt(size.days())),
+                    20 + random.nextInt(131), 30 + 5 * random.nextInt(19), regions.get(random.nextInt(regions.size()))));
+        }
+
+        List<Deployment> deployments = new ArrayList<>(size.deploymentSlots());
+        for (int i = 0; i < size.deploymentSlots(); i++) {
+            deployments.add(new Deployment(i + 1, null, null, null, null, new ArrayList<>()));
+        }
+
+        DeploymentPlan plan = new DeploymentPlan();
+        plan.setRegions(regions);
+        plan.setLatencies(latencies);
+        plan.setCosts(costs);
+        plan.setServerList(servers);
+        plan.setServiceList(services);
+        plan.setAvailableDates(availableDates);
+        plan.setRequests(requests);
+        plan.setDeployments(deployments);
+        return plan;
+    }
+
+    /**
+     * Services in dependency order, every service comes after the ones it depends on.
+     */
+    private static List<Service> generateServices(Size size, Random random) {
+        int layers = size.dependencyDepth() + 1;
+        int stackCount = Math.max(1, size.services() / layers);
+        // Per stack, per layer
+        List<List<List<Service>>> stacks = new ArrayList<>(stackCount);
+        for (int stack = 0; stack < stackCount; stack++) {
+            stacks.add(new ArrayList<>(layers));
+        }
+        List<Service> services = new ArrayList<>(size.services());
+        for (int layer = 0; layer < layers; layer++) {
+            // One service per stack and layer, services left over join the bottom layers
+            int count = layer == 0 ? size.services() - stackCount * (layers - 1) : stackCount;
+            for (int stack = 0; stack < stackCount; stack++) {
+                stacks.get(stack).add(new ArrayList<>());
+            }
+            for (int i = 0; i < count; i++) {
+                int id = services.size() + 1;
+                List<List<Service>> stack = stacks.get(i % stackCount);
+                // Lower layers are heavier (databases), higher layers lighter (front ends)
+                float cpu = 1 + random.nextInt(layer == 0 ? 6 : 3);
+                float ram = 2 + random.nextInt(layer == 0 ? 14 : 6);
+                float storage = layer == 0 ? 50 + random.nextInt(151) : 5 + random.nextInt(26);
+                int maxRequests = 400 + random.nextInt(401);
+                Service service = new Service(id, "service-" + layer + "-" + id, cpu, ram, storage, maxRequests, new ArrayList<>());
+                if (layer > 0) {
+                    List<Service> below = stack.get(layer - 1);
+                    service.dependsOn(below.get(random.nextInt(below.size())));
+                    Service second = below.get(random.nextInt(below.size()));
+                    if (random.nextBoolean() && !service.getDependencies().contains(second)) {
+                        service.dependsOn(second);
+                    }
+                }
+                stack.get(layer).add(service);
+                services.add(service);
+            }
+        }
+        return services;
+    }
+}
@@ -1,18 +1,32 @@
 package lv.lu.eztf.dn.network_optimizer.benchmark;
 
 import ai.timefold.solver.jackson.impl.domain.solution.JacksonSolutionFileIO;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlanReader;
+
+import java.io.*;
 
 /**
  * Solution file I/O for reading and writing DeploymentPlan instances in JSON format.
  * This is used by the benchmarker to load problem datasets and optionally write solutions.
+ * Datasets are read as a stream, {@code .smile} files as Smile (binary JSON), everything else as JSON.
  */
 public class DeploymentPlanSolutionFileIO extends JacksonSolutionFileIO<DeploymentPlan> {
 
+    private final ObjectMapper objectMapper;
+    private final JsonFactory smileFactory = new SmileFactory();
+
     public DeploymentPlanSolutionFileIO() {
-        super(DeploymentPlan.class, createObjectMapper());
+        this(createObjectMapper());
+    }
+
+    private DeploymentPlanSolutionFileIO(ObjectMapper objectMapper) {
+        super(DeploymentPlan.class, objectMapper);
+        this.objectMapper = objectMapper;
     }
 
     private static ObjectMapper createObjectMapper() {
@@ -23,4 +37,23 @@ public class DeploymentPlanSolutionFileIO extends JacksonSolutionFileIO<Deployme
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
         return mapper;
     }
+
+    @Override
+    public DeploymentPlan read(File inputSolutionFile) {
+        JsonFactory factory = inputSolutionFile.getName().endsWith(".smile") ? smileFactory : objectMapper.getFactory();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(inputSolutionFile))) {
+            return DeploymentPlanReader.read(factory, in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read inputSolutionFile (" + inputSolutionFile + ").", e);
+        }
+    }
+
+    @Override
+    public DeploymentPlan read(InputStream inputSolutionStream) {
+        try {
+            return DeploymentPlanReader.read(objectMapper.getFactory(), inputSolutionStream);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read inputSolutionStream.", e);
+        }
+    }
 }
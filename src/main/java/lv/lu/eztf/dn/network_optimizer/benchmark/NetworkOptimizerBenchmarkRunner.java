@@ -2,14 +2,19 @@ package lv.lu.eztf.dn.network_optimizer.benchmark;
 
 import ai.timefold.solver.benchmark.api.PlannerBenchmark;
 import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+import ai.timefold.solver.benchmark.config.PlannerBenchmarkConfig;
+import ai.timefold.solver.benchmark.config.SolverBenchmarkConfig;
+import ai.timefold.solver.benchmark.impl.DefaultPlannerBenchmark;
 import ai.timefold.solver.core.config.solver.EnvironmentMode;
 import ai.timefold.solver.core.config.solver.SolverConfig;
 import lv.lu.eztf.dn.network_optimizer.NetworkOptimizationConstraintProvider;
 import lv.lu.eztf.dn.network_optimizer.domain.*;
+import lv.lu.eztf.dn.network_optimizer.solver.DefaultPhases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -27,22 +32,53 @@ import java.util.List;
  *   Run this class directly from your IDE or via Maven:
  *   mvn exec:java -Dexec.mainClass="lv.lu.eztf.dn.network_optimizer.benchmark.NetworkOptimizerBenchmarkRunner"
  *
+ *   The first argument optionally names another benchmark config resource, for example
+ *   benchmarkConfigScoreCalculation.xml for the score calculation speed regression run,
+ *   benchmarkConfigConstruction.xml to compare the construction heuristics with the greedy placement phase,
+ *   benchmarkConfigMoveThreads.xml for core scaling with 1 to 16 move threads,
+ *   or benchmarkConfigScaling.xml for score calculation speed and memory use on the generated size ladder
+ *   (see DeploymentPlanGenerator).
+ *   A solver benchmark that configures no phases, neither itself nor through the inherited solver benchmark,
+ *   runs with the phases of solverConfig.xml, so benchmarks of the default solver don't have to copy them.
+ *
  * The benchmark will:
  *   - Test multiple solver configurations (Tabu Search, Late Acceptance, etc.)
  *   - Run each configuration on all datasets in src/main/resources/data/
  *   - Generate an HTML report in local/benchmarkReport/
  *   - Automatically open the report in your default browser
+ *
+ * Headless mode, for CI: any option starting with -- runs the benchmark without a browser and writes
+ * summary.json and summary.csv (see BenchmarkSummary) next to the HTML report.
+ *   --config       benchmark config resource or file, benchmarkConfig.xml by default
+ *   --dataset      dataset file replacing those of the config, repeatable
+ *   --output       directory for the summary instead of the benchmark directory
+ *   --baseline     summary.json of an earlier run to compare with
+ *   --threshold    allowed relative regression against the baseline, 0.05 (5%) by default
+ * The exit code is 0 on success, 1 when the benchmark fails and 2 when a result regressed beyond the threshold.
+ *   mvn exec:java -Dexec.mainClass="lv.lu.eztf.dn.network_optimizer.benchmark.NetworkOptimizerBenchmarkRunner" \
+ *       -Dexec.args="--config benchmarkConfigScoreCalculation.xml --baseline ci/summary.json --threshold 0.1"
  */
 public class NetworkOptimizerBenchmarkRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkOptimizerBenchmarkRunner.class);
 
+    private static final String DEFAULT_BENCHMARK_CONFIG = "benchmarkConfig.xml";
+    private static final double DEFAULT_THRESHOLD = 0.05;
+
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_REGRESSED = 2;
+
     public static void main(String[] args) {
-        logger.info("Starting Network Optimizer Benchmark...");
+        if (args.length > 0 && args[0].startsWith("--")) {
+            System.exit(runHeadless(args));
+        }
+        String benchmarkConfig = args.length > 0 ? args[0] : DEFAULT_BENCHMARK_CONFIG;
+        logger.info("Starting Network Optimizer Benchmark with {}...", benchmarkConfig);
         logger.info("This may take several minutes depending on the number of datasets and solver configurations.");
         try {
             // Create benchmark factory from XML configuration
-            PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.createFromXmlResource("benchmarkConfig.xml");
+            PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.create(
+                    inheritDefaultPhases(PlannerBenchmarkConfig.createFromXmlResource(benchmarkConfig)));
             PlannerBenchmark benchmark = benchmarkFactory.buildPlannerBenchmark();
             logger.info("Benchmark configuration loaded. Starting benchmark execution...");
             // Run the benchmark and automatically open the report in the browser
@@ -51,7 +87,99 @@ public class NetworkOptimizerBenchmarkRunner {
             logger.info("Results have been written to local/benchmarkReport/");
         } catch (Exception e) {
             logger.error("Benchmark failed with error: {}", e.getMessage(), e);
-            System.exit(1);
+            System.exit(EXIT_FAILED);
+        }
+    }
+
+    private static int runHeadless(String[] args) {
+        String benchmarkConfig = DEFAULT_BENCHMARK_CONFIG;
+        List<File> datasets = new ArrayList<>();
+        File outputDirectory = null;
+        File baselineFile = null;
+        double threshold = DEFAULT_THRESHOLD;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                if (value == null || value.startsWith("--")) {
+                    throw new IllegalArgumentException("Option " + args[i] + " needs a value.");
+                }
+                switch (args[i++]) {
+                    case "--config" -> benchmarkConfig = value;
+                    case "--dataset" -> datasets.add(new File(value));
+                    case "--output" -> outputDirectory = new File(value);
+                    case "--baseline" -> baselineFile = new File(value);
+                    case "--threshold" -> threshold = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i - 1] + ".");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return EXIT_FAILED;
+        }
+
+        List<BenchmarkSummary.Entry> summary;
+        try {
+            File configFile = new File(benchmarkConfig);
+            PlannerBenchmarkConfig config = configFile.isFile()
+                    ? PlannerBenchmarkConfig.createFromXmlFile(configFile)
+                    : PlannerBenchmarkConfig.createFromXmlResource(benchmarkConfig);
+            if (!datasets.isEmpty()) {
+                SolverBenchmarkConfig inherited = config.getInheritedSolverBenchmarkConfig();
+                if (inherited == null || inherited.getProblemBenchmarksConfig() == null) {
+                    throw new IllegalArgumentException("Benchmark config " + benchmarkConfig
+                            + " has no inherited problemBenchmarks to replace the datasets of.");
+                }
+                inherited.getProblemBenchmarksConfig().setInputSolutionFileList(datasets);
+            }
+            logger.info("Starting headless Network Optimizer Benchmark with {}...", benchmarkConfig);
+            PlannerBenchmark benchmark = PlannerBenchmarkFactory.create(inheritDefaultPhases(config))
+                    .buildPlannerBenchmark();
+            File benchmarkDirectory = benchmark.benchmark();
+            summary = BenchmarkSummary.of(((DefaultPlannerBenchmark) benchmark).getPlannerBenchmarkResult());
+            if (outputDirectory == null) {
+                outputDirectory = benchmarkDirectory;
+            }
+            outputDirectory.mkdirs();
+            BenchmarkSummary.writeJson(summary, new File(outputDirectory, "summary.json"));
+            BenchmarkSummary.writeCsv(summary, new File(outputDirectory, "summary.csv"));
+            logger.info("Report in {}, summary in {}.", benchmarkDirectory, outputDirectory);
+        } catch (Exception e) {
+            logger.error("Benchmark failed with error: {}", e.getMessage(), e);
+            return EXIT_FAILED;
+        }
+
+        if (baselineFile == null) {
+            return 0;
+        }
+        try {
+            List<String> regressions = BenchmarkSummary.regressions(BenchmarkSummary.readJson(baselineFile),
+                    summary, threshold);
+            if (regressions.isEmpty()) {
+                logger.info("No regressions against {} beyond {}%.", baselineFile, threshold * 100);
+                return 0;
+            }
+            regressions.forEach(regression -> logger.error("Regression: {}", regression));
+            return EXIT_REGRESSED;
+        } catch (IOException e) {
+            logger.error("Can't read baseline {}: {}", baselineFile, e.getMessage(), e);
+            return EXIT_FAILED;
+        }
+    }
+
+    private static PlannerBenchmarkConfig inheritDefaultPhases(PlannerBenchmarkConfig config) {
+        SolverBenchmarkConfig inherited = config.getInheritedSolverBenchmarkConfig();
+        if (inherited != null && inherited.getSolverConfig() != null
+                && inherited.getSolverConfig().getPhaseConfigList() != null) {
+            return config;
+        }
+        if (config.getSolverBenchmarkConfigList() != null) {
+            for (SolverBenchmarkConfig solverBenchmark : config.getSolverBenchmarkConfigList()) {
+                if (solverBenchmark.getSolverConfig() == null) {
+                    solverBenchmark.setSolverConfig(new SolverConfig());
+                }
+                DefaultPhases.inherit(solverBenchmark.getSolverConfig());
+            }
         }
+        return config;
     }
 }
@@ -0,0 +1,37 @@
+package lv.lu.eztf.dn.network_optimizer.benchmark;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import lv.lu.eztf.dn.network_optimizer.NetworkOptimizationConstraintProvider;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+
+import java.util.Arrays;
+
+import static ai.timefold.solver.core.api.score.stream.Joiners.filtering;
+
+/**
+ * The constraints of NetworkOptimizationConstraintProvider with the duplicate assignment check as it was before
+ * it counted per request: every pair of deployments compares its request lists. Only used by the score calculation
+ * benchmark, as the baseline its report compares the speed against.
+ */
+public class PairwiseDuplicateCheckConstraintProvider implements ConstraintProvider {
+
+    static final String CONSTRAINT_NAME = "Request must not be assigned more than once";
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory factory) {
+        return Arrays.stream(new NetworkOptimizationConstraintProvider().defineConstraints(factory))
+                .map(constraint -> constraint.getConstraintRef().constraintName().equals(CONSTRAINT_NAME)
+                        ? noRequestMultipleAssignments(factory) : constraint)
+                .toArray(Constraint[]::new);
+    }
+
+    private Constraint noRequestMultipleAssignments(ConstraintFactory factory) {
+        return factory.forEachUniquePair(Deployment.class,
+                        filtering((d1, d2) -> d1 != d2 && d1.getRequests().stream().anyMatch(d2.getRequests()::contains)))
+                .penalize(HardSoftLongScore.ONE_HARD)
+                .asConstraint(CONSTRAINT_NAME);
+    }
+}
@@ -1,19 +1,60 @@
 package lv.lu.eztf.dn.network_optimizer.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
-@Setter @Getter @AllArgsConstructor @NoArgsConstructor
+@Setter @Getter @NoArgsConstructor
 @JsonIdentityInfo(scope = Cost.class, property = "id", generator = ObjectIdGenerators.PropertyGenerator.class)
 public class Cost {
+    // Soft scores are expressed in millionths of a cost unit
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+
     int id;
     BigDecimal daily;
     BigDecimal allocation;
     BigDecimal deallocation;
+
+    // Fixed-point copies converted once on load, used by the constraints
+    @JsonIgnore
+    long dailyMicros;
+    @JsonIgnore
+    long allocationMicros;
+    @JsonIgnore
+    long deallocationMicros;
+
+    public Cost(int id, BigDecimal daily, BigDecimal allocation, BigDecimal deallocation) {
+        this.id = id;
+        setDaily(daily);
+        setAllocation(allocation);
+        setDeallocation(deallocation);
+    }
+
+    public void setDaily(BigDecimal daily) {
+        this.daily = daily;
+        this.dailyMicros = toMicros(daily);
+    }
+
+    public void setAllocation(BigDecimal allocation) {
+        this.allocation = allocation;
+        this.allocationMicros = toMicros(allocation);
+    }
+
+    public void setDeallocation(BigDecimal deallocation) {
+        this.deallocation = deallocation;
+        this.deallocationMicros = toMicros(deallocation);
+    }
+
+    private static long toMicros(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
 }
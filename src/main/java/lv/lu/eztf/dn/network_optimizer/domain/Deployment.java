@@ -5,6 +5,8 @@ import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
 import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
 import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
 import java.util.*;
@@ -25,13 +27,15 @@ public class Deployment {
     @PlanningVariable(valueRangeProviderRefs = {"serverRange"}, nullable = true)
     private Server server;
 
-    // Planning variable: When to start the deployment
-    @PlanningVariable(valueRangeProviderRefs = {"dateRange"})
-    Date dateFrom;
+    // Planning variable: When to start the deployment (epoch day, exposed as dateFrom in JSON)
+    @JsonIgnore
+    @PlanningVariable(valueRangeProviderRefs = {"dayRange"})
+    Integer dayFrom;
 
-    // Planning variable: When to end the deployment
-    @PlanningVariable(valueRangeProviderRefs = {"dateRange"})
-    Date dateTo;
+    // Planning variable: When to end the deployment (epoch day, exposed as dateTo in JSON)
+    @JsonIgnore
+    @PlanningVariable(valueRangeProviderRefs = {"dayRange"})
+    Integer dayTo;
 
     // Planning list variable: Which requests this deployment serves
     @PlanningListVariable(valueRangeProviderRefs = {"requestRange"})
@@ -50,14 +54,48 @@ public class Deployment {
      * Checks if dates are valid (dateTo after dateFrom)
      */
     public boolean hasValidDates() {
-        return dateFrom != null && dateTo != null && (dateTo.equals(dateFrom) || dateTo.after(dateFrom));
+        return dayFrom != null && dayTo != null && dayTo >= dayFrom;
+    }
+
+    @JsonProperty("dateFrom")
+    public Date getDateFrom() {
+        return dayFrom == null ? null : EpochDays.toDate(dayFrom);
+    }
+
+    @JsonProperty("dateFrom")
+    public void setDateFrom(Date dateFrom) {
+        this.dayFrom = dateFrom == null ? null : EpochDays.of(dateFrom);
+    }
+
+    @JsonProperty("dateTo")
+    public Date getDateTo() {
+        return dayTo == null ? null : EpochDays.toDate(dayTo);
+    }
+
+    @JsonProperty("dateTo")
+    public void setDateTo(Date dateTo) {
+        this.dayTo = dateTo == null ? null : EpochDays.of(dateTo);
     }
 
     public List<Service> getImpactedServices() {
         if(this.getService() != null) {
             return this.getService().totalContainedServices();
         }
-        return new ArrayList<>();
+        return List.of();
+    }
+
+    /**
+     * Checks if the other service is this deployment's service or one of its dependencies
+     */
+    public boolean impacts(Service other) {
+        return service != null && service.contains(other);
+    }
+
+    /**
+     * Checks if the request is for the service this deployment runs
+     */
+    public boolean canServe(Request request) {
+        return service != null && service.getName() != null && service.getName().equals(request.getServiceName());
     }
 
     /**
@@ -74,8 +112,8 @@ public class Deployment {
         this.id = id;
         this.service = service;
         this.server = server;
-        this.dateFrom = dateFrom;
-        this.dateTo = dateTo;
+        setDateFrom(dateFrom);
+        setDateTo(dateTo);
         this.requests = requests;
         // requestLatencies is managed by Timefold
     }
@@ -4,18 +4,20 @@ import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionPrope
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactProperty;
+import ai.timefold.solver.core.api.domain.valuerange.CountableValueRange;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeFactory;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
-import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 
 @PlanningSolution
 @Getter @Setter @NoArgsConstructor
@@ -34,13 +36,13 @@ public class DeploymentPlan {
     @ProblemFactCollectionProperty
     private List<Service> serviceList = new ArrayList<>();
 
-    // Value range: Available dates for deployment windows
-    @ValueRangeProvider(id = "dateRange")
+    // Available dates for deployment windows, only their span matters (see getDayRange)
     private List<Date> availableDates = new ArrayList<>();
 
     // Value range: Requests to be assigned to deployments
+    // (entities themselves, because they carry the inverse shadow variables of Deployment.requests)
     @ValueRangeProvider(id = "requestRange")
-    @ProblemFactCollectionProperty
+    @PlanningEntityCollectionProperty
     private List<Request> requests = new ArrayList<>();
 
     // Planning entities: Deployments (placement + timing + request assignments)
@@ -51,6 +53,12 @@ public class DeploymentPlan {
     @ProblemFactCollectionProperty
     private List<InterRegionLatency> latencies = new ArrayList<>();
 
+    // Flattened dependency closure: one (service, dependency) pair for every service in
+    // Service.totalContainedServices(), the service itself included. Derived in setServiceList.
+    @ProblemFactCollectionProperty
+    @JsonIgnore
+    private List<ServiceDependency> serviceDependencies = new ArrayList<>();
+
     @JsonProperty("costs")
     private List<Cost> costs;
 
@@ -58,7 +66,83 @@ public class DeploymentPlan {
     private List<Region> regions;
 
     @PlanningScore
-    private HardSoftScore score;
+    private HardSoftLongScore score;
+
+    /**
+     * Value range: Every epoch day between the first and last available date, inclusive.
+     * Countable, so long horizons are never materialised as a list.
+     */
+    @ValueRangeProvider(id = "dayRange")
+    @JsonIgnore
+    public CountableValueRange<Integer> getDayRange() {
+        if (availableDates == null || availableDates.isEmpty()) {
+            return ValueRangeFactory.createIntValueRange(0, 0);
+        }
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (Date date : availableDates) {
+            int day = EpochDays.of(date);
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        return ValueRangeFactory.createIntValueRange(first, last + 1);
+    }
+
+    public void setServiceList(List<Service> serviceList) {
+        this.serviceList = serviceList;
+        // Dependency closures and capacities are computed once here instead of in every constraint evaluation
+        Service.resolveDependencyClosures(serviceList);
+        List<ServiceDependency> closurePairs = new ArrayList<>();
+        if (serviceList != null) {
+            for (Service service : serviceList) {
+                for (Service dependency : service.totalContainedServices()) {
+                    closurePairs.add(new ServiceDependency(service, dependency));
+                }
+            }
+        }
+        this.serviceDependencies = closurePairs;
+    }
+
+    /**
+     * A plan over part of the servers, services, requests and deployments of this plan.
+     * Dates, costs, regions, latencies and the latency matrix are shared, and the closure pairs are filtered
+     * instead of resolved again, so the shared services are never written to.
+     */
+    public DeploymentPlan subPlan(List<Server> servers, List<Service> services,
+                                  List<Request> requests, List<Deployment> deployments) {
+        DeploymentPlan part = new DeploymentPlan();
+        part.serverList = servers;
+        part.serviceList = services;
+        Set<Service> included = Collections.newSetFromMap(new IdentityHashMap<>());
+        included.addAll(services);
+        part.serviceDependencies = new ArrayList<>();
+        for (ServiceDependency pair : serviceDependencies) {
+            if (included.contains(pair.getService())) {
+                part.serviceDependencies.add(pair);
+            }
+        }
+        part.availableDates = availableDates;
+        part.requests = requests;
+        part.deployments = deployments;
+        part.latencies = latencies;
+        part.costs = costs;
+        part.regions = regions;
+        part.latencyMatrix = getLatencyMatrix();
+        return part;
+    }
+
+    // Derived from regions and latencies, built once per problem and shared by planning clones
+    @JsonIgnore
+    private RegionLatencyMatrix latencyMatrix;
+
+    @ProblemFactProperty
+    @JsonIgnore
+    public RegionLatencyMatrix getLatencyMatrix() {
+        if (latencyMatrix == null) {
+            latencyMatrix = RegionLatencyMatrix.of(this);
+        }
+        return latencyMatrix;
+    }
 }
 
 
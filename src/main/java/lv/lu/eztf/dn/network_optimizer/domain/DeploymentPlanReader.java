@@ -0,0 +1,367 @@
+package lv.lu.eztf.dn.network_optimizer.domain;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reads a plan token by token instead of binding it with Jackson's object id machinery, so large inputs are
+ * read in one pass with only the plan itself on the heap. Accepts what the API writes and the datasets use,
+ * from any Jackson parser, JSON or binary.
+ * <p>
+ * Regions are referenced by name, costs, services, servers and requests by id, either as a plain id or as the full
+ * object. A reference to something not read yet gets an empty object that is filled in once its definition comes,
+ * so forward references cost nothing. References that are never defined fail the read once the plan is complete,
+ * like Jackson's unresolved forward references. Derived and unknown fields are skipped.
+ */
+public class DeploymentPlanReader {
+
+    private final Registry<String, Region> regions = new Registry<>("region", name -> new Region(name, 0));
+    private final Registry<Integer, Cost> costs = new Registry<>("cost", withId(Cost::new, Cost::setId));
+    private final Registry<Integer, Service> services = new Registry<>("service", withId(Service::new, Service::setId));
+    private final Registry<Integer, Server> servers = new Registry<>("server", withId(Server::new, Server::setId));
+    private final Registry<Integer, Request> requests = new Registry<>("request", withId(Request::new, Request::setId));
+    private final StdDateFormat dateFormat = new StdDateFormat();
+
+    private DeploymentPlanReader() {
+    }
+
+    public static DeploymentPlan read(JsonFactory factory, InputStream in) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    public static DeploymentPlan read(JsonParser parser) throws IOException {
+        return new DeploymentPlanReader().readPlan(parser);
+    }
+
+    private DeploymentPlan readPlan(JsonParser parser) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
+        }
+        expect(parser, JsonToken.START_OBJECT);
+        List<Region> regionList = null;
+        List<Cost> costList = null;
+        List<Server> serverList = new ArrayList<>();
+        List<Service> serviceList = new ArrayList<>();
+        List<Request> requestList = new ArrayList<>();
+        List<Deployment> deploymentList = new ArrayList<>();
+        List<InterRegionLatency> latencyList = new ArrayList<>();
+        List<Date> availableDates = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "regions" -> regionList = readList(parser, this::region);
+                case "costs" -> costList = readList(parser, this::cost);
+                case "serverList" -> serverList = readList(parser, this::server);
+                case "serviceList" -> serviceList = readList(parser, this::service);
+                case "requests" -> requestList = readList(parser, this::request);
+                case "deployments" -> deploymentList = readList(parser, this::deployment);
+                case "latencies" -> latencyList = readList(parser, this::latency);
+                case "availableDates" -> availableDates = readList(parser, this::date);
+                default -> parser.skipChildren();
+            }
+        }
+        List<String> undefined = new ArrayList<>();
+        for (Registry<?, ?> registry : List.of(regions, costs, services, servers, requests)) {
+            registry.collectUndefined(undefined);
+        }
+        if (!undefined.isEmpty()) {
+            throw new JsonParseException(parser, "Referenced but never defined: " + String.join(", ", undefined) + ".");
+        }
+
+        DeploymentPlan plan = new DeploymentPlan();
+        plan.setRegions(regionList);
+        plan.setCosts(costList);
+        plan.setServerList(serverList);
+        // Only now every dependency has been read, the closures are resolved here
+        plan.setServiceList(serviceList);
+        plan.setRequests(requestList);
+        plan.setDeployments(deploymentList);
+        plan.setLatencies(latencyList);
+        plan.setAvailableDates(availableDates);
+        return plan;
+    }
+
+    private Region region(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            String name = parser.getValueAsString();
+            return name == null ? null : regions.reference(name);
+        }
+        String name = null;
+        float latency = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> name = parser.getValueAsString();
+                case "latency" -> latency = parser.getFloatValue();
+                default -> parser.skipChildren();
+            }
+        }
+        if (name == null) {
+            throw new JsonParseException(parser, "Region without a name.");
+        }
+        Region region = regions.define(name);
+        region.setLatency(latency);
+        return region;
+    }
+
+    private Cost cost(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return reference(parser, costs);
+        }
+        Integer id = null;
+        Cost cost = new Cost();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getIntValue();
+                case "daily" -> cost.setDaily(parser.getDecimalValue());
+                case "allocation" -> cost.setAllocation(parser.getDecimalValue());
+                case "deallocation" -> cost.setDeallocation(parser.getDecimalValue());
+                default -> parser.skipChildren();
+            }
+        }
+        Cost target = define(parser, costs, id);
+        target.setDaily(cost.getDaily());
+        target.setAllocation(cost.getAllocation());
+        target.setDeallocation(cost.getDeallocation());
+        return target;
+    }
+
+    private Server server(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return reference(parser, servers);
+        }
+        Integer id = null;
+        Server server = new Server();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getIntValue();
+                case "name" -> server.setName(parser.getValueAsString());
+                case "cpuCores" -> server.setCpuCores(parser.getIntValue());
+                case "ramGB" -> server.setRamGB(parser.getFloatValue());
+                case "storageGB" -> server.setStorageGB(parser.getFloatValue());
+                case "region" -> server.setRegion(region(parser));
+                case "cost" -> server.setCost(cost(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        Server target = define(parser, servers, id);
+        target.setName(server.getName());
+        target.setCpuCores(server.getCpuCores());
+        target.setRamGB(server.getRamGB());
+        target.setStorageGB(server.getStorageGB());
+        target.setRegion(server.getRegion());
+        target.setCost(server.getCost());
+        return target;
+    }
+
+    private Service service(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return reference(parser, services);
+        }
+        Integer id = null;
+        Service service = new Service();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getIntValue();
+                case "name" -> service.setName(parser.getValueAsString());
+                case "cpuPerInstance" -> service.setCpuPerInstance(parser.getFloatValue());
+                case "ramPerInstance" -> service.setRamPerInstance(parser.getFloatValue());
+                case "storagePerInstance" -> service.setStoragePerInstance(parser.getFloatValue());
+                case "maxRequestsPerInstance" -> service.setMaxRequestsPerInstance(parser.getIntValue());
+                case "dependencies" -> service.setDependencies(readList(parser, this::service));
+                default -> parser.skipChildren();
+            }
+        }
+        Service target = define(parser, services, id);
+        target.setName(service.getName());
+        target.setCpuPerInstance(service.getCpuPerInstance());
+        target.setRamPerInstance(service.getRamPerInstance());
+        target.setStoragePerInstance(service.getStoragePerInstance());
+        target.setMaxRequestsPerInstance(service.getMaxRequestsPerInstance());
+        target.setDependencies(service.getDependencies());
+        return target;
+    }
+
+    private Request request(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return reference(parser, requests);
+        }
+        Integer id = null;
+        Request request = new Request();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getIntValue();
+                case "serviceName" -> request.setServiceName(parser.getValueAsString());
+                case "date" -> request.setDate(date(parser));
+                case "estimatedQueryCount" -> request.setEstimatedQueryCount(parser.getIntValue());
+                case "maxLatencySLA" -> request.setMaxLatencySLA(parser.getFloatValue());
+                case "sourceRegion" -> request.setSourceRegion(region(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        Request target = define(parser, requests, id);
+        target.setServiceName(request.getServiceName());
+        target.setDate(request.getDate());
+        target.setEstimatedQueryCount(request.getEstimatedQueryCount());
+        target.setMaxLatencySLA(request.getMaxLatencySLA());
+        target.setSourceRegion(request.getSourceRegion());
+        return target;
+    }
+
+    private Deployment deployment(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        Deployment deployment = new Deployment();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> deployment.setId(parser.getIntValue());
+                case "service" -> deployment.setService(service(parser));
+                case "server" -> deployment.setServer(server(parser));
+                case "dateFrom" -> deployment.setDateFrom(date(parser));
+                case "dateTo" -> deployment.setDateTo(date(parser));
+                case "requests" -> deployment.setRequests(readList(parser, this::request));
+                default -> parser.skipChildren();
+            }
+        }
+        return deployment;
+    }
+
+    private InterRegionLatency latency(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        InterRegionLatency latency = new InterRegionLatency();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "latency" -> latency.setLatency(parser.getFloatValue());
+                case "region1" -> latency.setRegion1(region(parser));
+                case "region2" -> latency.setRegion2(region(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return latency;
+    }
+
+    /**
+     * Epoch milliseconds or any date string Jackson itself accepts for a {@link Date}.
+     */
+    private Date date(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> new Date(parser.getLongValue());
+            default -> {
+                try {
+                    yield dateFormat.parse(parser.getValueAsString());
+                } catch (ParseException e) {
+                    throw new JsonParseException(parser, "Invalid date '" + parser.getValueAsString() + "'.", e);
+                }
+            }
+        };
+    }
+
+    private <T> List<T> readList(JsonParser parser, ElementReader<T> elementReader) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        List<T> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(elementReader.read(parser));
+        }
+        return list;
+    }
+
+    private static <T> T reference(JsonParser parser, Registry<Integer, T> registry) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return registry.reference(parser.getValueAsInt());
+    }
+
+    private static <T> T define(JsonParser parser, Registry<Integer, T> registry, Integer id) throws IOException {
+        if (id == null) {
+            throw new JsonParseException(parser, "Object without an id.");
+        }
+        return registry.define(id);
+    }
+
+    private static <T> Function<Integer, T> withId(Supplier<T> factory, IdSetter<T> idSetter) {
+        return id -> {
+            T created = factory.get();
+            idSetter.set(created, id);
+            return created;
+        };
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.currentToken() != token) {
+            throw new JsonParseException(parser, "Expected " + token + " but got " + parser.currentToken() + ".");
+        }
+    }
+
+    /**
+     * One object per key, whether it was referenced or defined first, and which keys got a definition.
+     */
+    private static final class Registry<K, T> {
+
+        private final String kind;
+        private final Function<K, T> factory;
+        private final Map<K, T> objects = new HashMap<>();
+        private final Set<K> defined = new HashSet<>();
+
+        Registry(String kind, Function<K, T> factory) {
+            this.kind = kind;
+            this.factory = factory;
+        }
+
+        T reference(K key) {
+            return objects.computeIfAbsent(key, factory);
+        }
+
+        T define(K key) {
+            defined.add(key);
+            return reference(key);
+        }
+
+        void collectUndefined(List<String> undefined) {
+            for (K key : objects.keySet()) {
+                if (!defined.contains(key)) {
+                    undefined.add(kind + " " + (key instanceof String ? "'" + key + "'" : key));
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface IdSetter<T> {
+        void set(T target, int id);
+    }
+}
@@ -0,0 +1,23 @@
+package lv.lu.eztf.dn.network_optimizer.domain;
+
+import java.util.Date;
+
+/**
+ * Conversions between the JSON facing java.util.Date values and the int epoch-day (UTC) time axis
+ * the solver works on.
+ */
+public final class EpochDays {
+
+    public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private EpochDays() {
+    }
+
+    public static int of(Date date) {
+        return Math.toIntExact(Math.floorDiv(date.getTime(), MILLIS_PER_DAY));
+    }
+
+    public static Date toDate(int epochDay) {
+        return new Date(epochDay * MILLIS_PER_DAY);
+    }
+}
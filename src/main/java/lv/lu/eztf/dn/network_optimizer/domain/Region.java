@@ -1,15 +1,24 @@
 package lv.lu.eztf.dn.network_optimizer.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Setter @Getter @AllArgsConstructor @NoArgsConstructor
+@Setter @Getter @NoArgsConstructor
 @JsonIdentityInfo(scope = Region.class, property = "name", generator = ObjectIdGenerators.PropertyGenerator.class)
 public class Region {
     String name;
     float latency;
+
+    // Dense ordinal assigned by RegionLatencyMatrix, -1 until the plan has been indexed
+    @JsonIgnore
+    int index = -1;
+
+    public Region(String name, float latency) {
+        this.name = name;
+        this.latency = latency;
+    }
 }
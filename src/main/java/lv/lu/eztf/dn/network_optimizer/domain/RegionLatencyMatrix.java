@@ -0,0 +1,109 @@
+package lv.lu.eztf.dn.network_optimizer.domain;
+
+import java.util.*;
+
+/**
+ * Immutable region to region latency lookup built once per problem.
+ * Every region gets a dense ordinal, the diagonal holds the intra-region latency
+ * and missing pairs are Integer.MAX_VALUE, so lookups are plain array reads.
+ */
+public final class RegionLatencyMatrix {
+
+    private final int[][] latencyMs;
+
+    private RegionLatencyMatrix(int[][] latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public static RegionLatencyMatrix of(DeploymentPlan plan) {
+        // Regions are matched by name, so every object carrying the same name shares an ordinal
+        Map<String, Integer> indexByName = new LinkedHashMap<>();
+        List<Region> seen = new ArrayList<>();
+        if (plan.getRegions() != null) {
+            plan.getRegions().forEach(region -> index(region, indexByName, seen));
+        }
+        if (plan.getServerList() != null) {
+            plan.getServerList().forEach(server -> index(server.getRegion(), indexByName, seen));
+        }
+        if (plan.getRequests() != null) {
+            plan.getRequests().forEach(request -> index(request.getSourceRegion(), indexByName, seen));
+        }
+        if (plan.getLatencies() != null) {
+            for (InterRegionLatency latency : plan.getLatencies()) {
+                if (latency != null) {
+                    index(latency.getRegion1(), indexByName, seen);
+                    index(latency.getRegion2(), indexByName, seen);
+                }
+            }
+        }
+
+        int size = indexByName.size();
+        int[][] latencyMs = new int[size][size];
+        for (int[] row : latencyMs) {
+            Arrays.fill(row, Integer.MAX_VALUE);
+        }
+        boolean[][] assigned = new boolean[size][size];
+        if (plan.getLatencies() != null) {
+            for (InterRegionLatency latency : plan.getLatencies()) {
+                if (latency == null || latency.getRegion1() == null || latency.getRegion2() == null) {
+                    continue;
+                }
+                int a = latency.getRegion1().getIndex();
+                int b = latency.getRegion2().getIndex();
+                if (a < 0 || b < 0 || assigned[a][b]) {
+                    // First listed latency for a pair wins
+                    continue;
+                }
+                latencyMs[a][b] = latencyMs[b][a] = toMs(latency.getLatency());
+                assigned[a][b] = assigned[b][a] = true;
+            }
+        }
+        // Same region always uses the region's own latency, regardless of the inter-region list
+        for (Region region : seen) {
+            latencyMs[region.getIndex()][region.getIndex()] = toMs(region.getLatency());
+        }
+        return new RegionLatencyMatrix(latencyMs);
+    }
+
+    private static void index(Region region, Map<String, Integer> indexByName, List<Region> seen) {
+        if (region == null || region.getName() == null) {
+            return;
+        }
+        Integer existing = indexByName.get(region.getName());
+        if (existing == null) {
+            existing = indexByName.size();
+            indexByName.put(region.getName(), existing);
+            seen.add(region);
+        }
+        region.setIndex(existing);
+    }
+
+    public int size() {
+        return latencyMs.length;
+    }
+
+    public int latencyMs(Region r1, Region r2) {
+        if (r1 == null || r2 == null) {
+            return Integer.MAX_VALUE;
+        }
+        int a = r1.getIndex();
+        int b = r2.getIndex();
+        if (a < 0 || b < 0 || a >= latencyMs.length || b >= latencyMs.length) {
+            return Integer.MAX_VALUE;
+        }
+        return latencyMs[a][b];
+    }
+
+    private static int toMs(float value) {
+        if (!Float.isFinite(value)) {
+            return Integer.MAX_VALUE;
+        }
+        if (value <= 0f) {
+            return 0;
+        }
+        if (value >= (float) Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) value;
+    }
+}
@@ -1,8 +1,12 @@
 package lv.lu.eztf.dn.network_optimizer.domain;
 
+import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.variable.IndexShadowVariable;
+import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,17 +15,47 @@ import java.util.Date;
 
 @Setter
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
+@PlanningEntity
 @JsonIdentityInfo(scope = Request.class, property = "id", generator = ObjectIdGenerators.PropertyGenerator.class)
 public class Request {
+    @PlanningId
     int id;
     String serviceName;
     Date date;  // When this request happens
+    @JsonIgnore
+    int day;    // Epoch day of date, the solver's time axis
     int estimatedQueryCount;
     float maxLatencySLA;
     Region sourceRegion;
 
+    // Shadow variable: The deployment whose request list contains this request, null if unassigned
+    @JsonIgnore
+    @InverseRelationShadowVariable(sourceVariableName = "requests")
+    Deployment deployment;
+
+    // Shadow variable: Position of this request inside the deployment's request list
+    @JsonIgnore
+    @IndexShadowVariable(sourceVariableName = "requests")
+    Integer position;
+
+    /**
+     * Custom constructor without shadow variables
+     */
+    public Request(int id, String serviceName, Date date, int estimatedQueryCount, float maxLatencySLA, Region sourceRegion) {
+        this.id = id;
+        this.serviceName = serviceName;
+        setDate(date);
+        this.estimatedQueryCount = estimatedQueryCount;
+        this.maxLatencySLA = maxLatencySLA;
+        this.sourceRegion = sourceRegion;
+    }
+
+    public void setDate(Date date) {
+        this.date = date;
+        this.day = date == null ? 0 : EpochDays.of(date);
+    }
+
     @Override
     public String toString() {
         return String.format("%s, %s, %d, %f", serviceName, date, estimatedQueryCount, maxLatencySLA);
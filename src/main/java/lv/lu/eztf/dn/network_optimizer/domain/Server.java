@@ -1,5 +1,6 @@
 package lv.lu.eztf.dn.network_optimizer.domain;
 
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.AllArgsConstructor;
@@ -13,6 +14,8 @@ import lombok.Setter;
 @NoArgsConstructor
 @JsonIdentityInfo(scope = Service.class, property = "id", generator = ObjectIdGenerators.PropertyGenerator.class)
 public class Server {
+    // Lets moves be rebased onto the working copies of move threads
+    @PlanningId
     int id;
     String name;
     int cpuCores;
@@ -21,4 +24,13 @@ public class Server {
 
     Region region;
     Cost cost;
+
+    /**
+     * Checks if a single instance of the service fits this server's CPU, RAM and storage
+     */
+    public boolean canHost(Service service) {
+        return service.getCpuPerInstance() <= cpuCores
+                && service.getRamPerInstance() <= ramGB
+                && service.getStoragePerInstance() <= storageGB;
+    }
 }
@@ -1,17 +1,19 @@
 package lv.lu.eztf.dn.network_optimizer.domain;
 
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.*;
 
-@Setter @Getter @AllArgsConstructor @NoArgsConstructor
+@Setter @Getter @NoArgsConstructor
 @JsonIdentityInfo(scope = Region.class, property = "id", generator = ObjectIdGenerators.PropertyGenerator.class)
 public class Service {
+    @PlanningId
     int id;
     String name;
     float cpuPerInstance;
@@ -19,14 +21,128 @@ public class Service {
     float storagePerInstance;
     int maxRequestsPerInstance;
     List<Service> dependencies;
+
+    // Derived once per problem by resolveDependencyClosures, read-only afterwards.
+    // Any change of the graph makes the closures of every service resolved with this one stale.
+    @JsonIgnore
+    Resolution resolution;
+    @JsonIgnore
+    int index = -1;
+    @JsonIgnore
+    BitSet closureBits;
+    @JsonIgnore
+    List<Service> closure;
+    @JsonIgnore
+    int effectiveMaxRequests;
+
+    public Service(int id, String name, float cpuPerInstance, float ramPerInstance, float storagePerInstance,
+                   int maxRequestsPerInstance, List<Service> dependencies) {
+        this.id = id;
+        this.name = name;
+        this.cpuPerInstance = cpuPerInstance;
+        this.ramPerInstance = ramPerInstance;
+        this.storagePerInstance = storagePerInstance;
+        this.maxRequestsPerInstance = maxRequestsPerInstance;
+        this.dependencies = dependencies;
+    }
+
     public void dependsOn(Service dependency) {
         // Make our life easier by only making dependencies not null when actually depending on something
         if(this.dependencies == null) {
             this.dependencies = new ArrayList<>();
         }
         this.dependencies.add(dependency);
+        invalidateClosures();
+    }
+
+    public void setDependencies(List<Service> dependencies) {
+        this.dependencies = dependencies;
+        invalidateClosures();
+    }
+
+    /**
+     * Dependants of this service were resolved together with it, so their closures go stale as well.
+     * Until resolveDependencyClosures runs again, every one of them walks the graph directly.
+     */
+    private void invalidateClosures() {
+        if (resolution != null) {
+            resolution.stale = true;
+        }
+    }
+
+    private boolean isResolved() {
+        return closure != null && !resolution.stale;
+    }
+
+    /**
+     * Gives every service a dense ordinal and computes its dependency closure and effective capacity once,
+     * so the constraint hot path only reads precomputed fields.
+     * Dependencies missing from the list are indexed as well.
+     *
+     * @throws IllegalStateException when the dependency graph has a cycle
+     */
+    public static void resolveDependencyClosures(List<Service> services) {
+        if (services == null) {
+            return;
+        }
+        Resolution resolution = new Resolution();
+        List<Service> indexed = new ArrayList<>();
+        Map<Service, Integer> ordinals = new IdentityHashMap<>();
+        Deque<Service> pending = new ArrayDeque<>(services);
+        while (!pending.isEmpty()) {
+            Service service = pending.removeFirst();
+            if (service == null || ordinals.containsKey(service)) {
+                continue;
+            }
+            ordinals.put(service, indexed.size());
+            service.resolution = resolution;
+            service.index = indexed.size();
+            service.closure = null;
+            service.closureBits = null;
+            indexed.add(service);
+            if (service.dependencies != null) {
+                pending.addAll(service.dependencies);
+            }
+        }
+        Set<Service> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Service service : indexed) {
+            service.resolveClosure(indexed, inProgress);
+        }
     }
+
+    private void resolveClosure(List<Service> indexed, Set<Service> inProgress) {
+        if (closure != null) {
+            return;
+        }
+        if (!inProgress.add(this)) {
+            throw new IllegalStateException("Service (" + name + ") depends on itself through its dependencies.");
+        }
+        BitSet bits = new BitSet(indexed.size());
+        bits.set(index);
+        int mr = maxRequestsPerInstance;
+        if (dependencies != null) {
+            for (Service dependency : dependencies) {
+                if (dependency == null) {
+                    continue;
+                }
+                dependency.resolveClosure(indexed, inProgress);
+                bits.or(dependency.closureBits);
+                // Each dependency might act as a bottleneck so we do min
+                mr = Math.min(mr, dependency.effectiveMaxRequests);
+            }
+        }
+        List<Service> services = new ArrayList<>(bits.cardinality());
+        bits.stream().forEach(i -> services.add(indexed.get(i)));
+        inProgress.remove(this);
+        closureBits = bits;
+        effectiveMaxRequests = mr;
+        closure = Collections.unmodifiableList(services);
+    }
+
     public int maxRequests() {
+        if (isResolved()) {
+            return effectiveMaxRequests;
+        }
         // Basically if no dependencies then simply look at the instance
         int mr = this.maxRequestsPerInstance;
         if(dependencies != null) {
@@ -37,6 +153,20 @@ public class Service {
         }
         return mr;
     }
+
+    /**
+     * Whether the other service is this service or one of its (transitive) dependencies.
+     */
+    public boolean contains(Service other) {
+        if (other == null) {
+            return false;
+        }
+        if (isResolved() && other.resolution == resolution) {
+            return closureBits.get(other.index);
+        }
+        return totalContainedServices().contains(other);
+    }
+
     public Set<Service> allDependenciesIncludingSelf() {
         Set<Service> result = new HashSet<>();
         collect(this, result);
@@ -54,21 +184,14 @@ public class Service {
 
     // Includes itself and all dependencies(even those of children)
     public List<Service> totalContainedServices() {
-        HashSet<Service> visited = new HashSet<>();
-        LinkedList<Service> que = new LinkedList<>();
-        que.add(this);
-        while(!que.isEmpty()) {
-            Service top = que.removeFirst();
-            visited.add(top);
-            List<Service> dependencies = top.getDependencies();
-            if(dependencies != null) {
-                for(Service child : top.getDependencies()) {
-                    que.push(child);
-                }
-            }
+        if (isResolved()) {
+            return closure;
         }
-        return visited.stream().toList();
+        // Not resolved with the rest of the plan yet, walk the graph directly
+        return List.copyOf(allDependenciesIncludingSelf());
     }
 
-
+    private static final class Resolution {
+        boolean stale;
+    }
 }
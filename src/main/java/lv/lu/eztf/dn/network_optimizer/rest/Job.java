@@ -0,0 +1,23 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+
+/**
+ * Latest state of a solving job: its best solution so far or the exception it failed with.
+ * The version goes up with every new best solution, so results derived from a solution can be cached per version.
+ * Terminated jobs won't change anymore, so a {@link JobStore} may move them out of memory.
+ */
+public record Job(DeploymentPlan solution, Throwable exception, boolean terminated, long version) {
+
+    public static Job ofSolution(DeploymentPlan solution, long version) {
+        return new Job(solution, null, false, version);
+    }
+
+    public static Job ofFinalSolution(DeploymentPlan solution, long version) {
+        return new Job(solution, null, true, version);
+    }
+
+    public static Job ofException(Throwable error) {
+        return new Job(null, error, true, -1);
+    }
+}
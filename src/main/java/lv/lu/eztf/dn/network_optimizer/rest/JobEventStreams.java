@@ -0,0 +1,209 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import lombok.extern.slf4j.Slf4j;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event streams of best solution updates, one per subscribed job.
+ * A subscriber first gets every deployment of the current best solution, after that only the deployments
+ * that changed since the previous best solution. Jobs without subscribers cost nothing.
+ * <p>
+ * Every subscriber of a stream has seen the stream's previous solution, which only publishing advances.
+ * A new subscriber gets that solution in full, or becomes the baseline when the stream has no subscribers.
+ * Streams are closed when their job ends, a subscriber that comes in after that gets the final solution and is done.
+ * Solver failures come as {@link #SOLVER_ERROR_EVENT}, EventSource's own error event means the connection dropped.
+ */
+@Slf4j
+public class JobEventStreams {
+
+    public static final String BEST_SOLUTION_EVENT = "bestSolution";
+    public static final String SOLVER_ERROR_EVENT = "solverError";
+
+    private final ConcurrentMap<String, Stream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * @param latestJob reads the job from the job store, which learns that a job terminated before its streams do
+     */
+    public SseEmitter subscribe(String jobId, Supplier<Job> latestJob, SolverStatus solverStatus) {
+        // No timeout, the stream ends with the job
+        SseEmitter emitter = new SseEmitter(0L);
+        if (solverStatus == SolverStatus.NOT_SOLVING) {
+            // Nothing will follow
+            sendFinal(emitter, latestJob.get());
+            return emitter;
+        }
+        Stream stream = streams.computeIfAbsent(jobId, id -> new Stream());
+        emitter.onCompletion(() -> stream.emitters.remove(emitter));
+        emitter.onTimeout(() -> stream.emitters.remove(emitter));
+        emitter.onError(error -> stream.emitters.remove(emitter));
+        synchronized (stream) {
+            Job job = latestJob.get();
+            if (stream.closed || job == null || job.terminated()) {
+                // The job ended since its status was read, a stream created now would never be published to
+                streams.remove(jobId, stream);
+                sendFinal(emitter, job);
+                return emitter;
+            }
+            if (stream.emitters.isEmpty()) {
+                // Nobody depends on the previous solution, diffs continue from what this subscriber sees
+                stream.previous = snapshot(job.solution());
+                stream.previousScore = scoreOf(job.solution());
+            }
+            List<DeploymentChange> all = new ArrayList<>(stream.previous.values());
+            if (send(emitter, new BestSolutionEvent(stream.previousScore, solverStatus, all))) {
+                stream.emitters.add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    public void bestSolutionChanged(String jobId, DeploymentPlan solution) {
+        Stream stream = streams.get(jobId);
+        if (stream != null) {
+            stream.publish(solution, SolverStatus.SOLVING_ACTIVE, false);
+        }
+    }
+
+    public void solvingEnded(String jobId, DeploymentPlan solution) {
+        Stream stream = streams.remove(jobId);
+        if (stream != null) {
+            stream.publish(solution, SolverStatus.NOT_SOLVING, true);
+        }
+    }
+
+    public void solvingFailed(String jobId, Throwable exception) {
+        Stream stream = streams.remove(jobId);
+        if (stream == null) {
+            return;
+        }
+        synchronized (stream) {
+            stream.closed = true;
+            for (SseEmitter emitter : stream.emitters) {
+                sendError(emitter, exception);
+            }
+        }
+    }
+
+    public void close() {
+        for (Stream stream : streams.values()) {
+            stream.emitters.forEach(SseEmitter::complete);
+        }
+        streams.clear();
+    }
+
+    /**
+     * Sends a job that won't change anymore in full, or its failure, and ends the stream.
+     */
+    private static void sendFinal(SseEmitter emitter, Job job) {
+        if (job == null || job.exception() != null) {
+            sendError(emitter, job == null ? null : job.exception());
+        } else if (send(emitter, new BestSolutionEvent(scoreOf(job.solution()), SolverStatus.NOT_SOLVING,
+                new ArrayList<>(snapshot(job.solution()).values())))) {
+            emitter.complete();
+        }
+    }
+
+    private static void sendError(SseEmitter emitter, Throwable exception) {
+        try {
+            emitter.send(SseEmitter.event().name(SOLVER_ERROR_EVENT)
+                    .data(exception == null ? "Unknown job." : String.valueOf(exception.getMessage())));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, BestSolutionEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(BEST_SOLUTION_EVENT).data(event, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            log.debug("Dropping event stream subscriber.", e);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static String scoreOf(DeploymentPlan solution) {
+        return solution.getScore() == null ? null : solution.getScore().toString();
+    }
+
+    private static Map<Integer, DeploymentChange> snapshot(DeploymentPlan solution) {
+        Map<Integer, DeploymentChange> snapshot = new LinkedHashMap<>();
+        if (solution != null && solution.getDeployments() != null) {
+            for (Deployment deployment : solution.getDeployments()) {
+                snapshot.put(deployment.getId(), DeploymentChange.of(deployment));
+            }
+        }
+        return snapshot;
+    }
+
+    private static class Stream {
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // What every subscriber has seen so far
+        Map<Integer, DeploymentChange> previous = Map.of();
+        String previousScore;
+        // Set once the job ended, subscribers arriving later are answered right away
+        boolean closed;
+
+        synchronized void publish(DeploymentPlan solution, SolverStatus solverStatus, boolean last) {
+            closed = last;
+            if (emitters.isEmpty()) {
+                return;
+            }
+            Map<Integer, DeploymentChange> current = snapshot(solution);
+            List<DeploymentChange> changed = new ArrayList<>();
+            for (DeploymentChange deployment : current.values()) {
+                if (!deployment.equals(previous.get(deployment.id()))) {
+                    changed.add(deployment);
+                }
+            }
+            previous = current;
+            previousScore = scoreOf(solution);
+            BestSolutionEvent event = new BestSolutionEvent(scoreOf(solution), solverStatus, changed);
+            for (SseEmitter emitter : emitters) {
+                if (send(emitter, event) && last) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param changedDeployments every deployment in the first event of a stream, only the changed ones afterwards
+     */
+    public record BestSolutionEvent(String score, SolverStatus solverStatus, List<DeploymentChange> changedDeployments) {
+    }
+
+    /**
+     * A deployment as the job endpoints write it, with services, servers and requests by id.
+     */
+    public record DeploymentChange(int id, Integer service, Integer server, Date dateFrom, Date dateTo,
+                                   boolean active, List<Integer> requests) {
+
+        static DeploymentChange of(Deployment deployment) {
+            List<Integer> requestIds = new ArrayList<>(deployment.getRequestCount());
+            for (int i = 0; i < deployment.getRequestCount(); i++) {
+                Request request = deployment.getRequests().get(i);
+                requestIds.add(request.getId());
+            }
+            return new DeploymentChange(deployment.getId(),
+                    deployment.getService() == null ? null : deployment.getService().getId(),
+                    deployment.getServer() == null ? null : deployment.getServer().getId(),
+                    deployment.getDateFrom(), deployment.getDateTo(), deployment.isActive(), requestIds);
+        }
+    }
+}
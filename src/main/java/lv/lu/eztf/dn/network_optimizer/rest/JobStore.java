@@ -0,0 +1,26 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import java.util.Collection;
+
+/**
+ * Keeps the jobs of {@link NetworkOptimizerApiController}, which only ever talks to the jobs through this interface.
+ */
+public interface JobStore extends AutoCloseable {
+
+    void put(String jobId, Job job);
+
+    /**
+     * @return the job, reloaded if it was moved out of memory, null when unknown
+     */
+    Job get(String jobId);
+
+    /**
+     * @return the best solution version of the job without reloading it, null when unknown
+     */
+    Long version(String jobId);
+
+    Collection<String> jobIds();
+
+    @Override
+    void close();
+}
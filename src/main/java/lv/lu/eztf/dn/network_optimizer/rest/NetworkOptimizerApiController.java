@@ -1,107 +1,385 @@
 package lv.lu.eztf.dn.network_optimizer.rest;
 
+import ai.timefold.solver.core.api.domain.valuerange.CountableValueRange;
 import ai.timefold.solver.core.api.score.ScoreExplanation;
 import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
-import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.score.constraint.ConstraintMatch;
 import ai.timefold.solver.core.api.score.constraint.Indictment;
 import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlanReader;
+import lv.lu.eztf.dn.network_optimizer.domain.EpochDays;
+import lv.lu.eztf.dn.network_optimizer.domain.Region;
 import lv.lu.eztf.dn.network_optimizer.domain.Request;
 import lv.lu.eztf.dn.network_optimizer.domain.Server;
+import lv.lu.eztf.dn.network_optimizer.domain.Service;
+import lv.lu.eztf.dn.network_optimizer.solver.AddRequestsProblemChange;
+import lv.lu.eztf.dn.network_optimizer.solver.ChangeCostProblemChange;
+import lv.lu.eztf.dn.network_optimizer.solver.RemoveRequestProblemChange;
+import lv.lu.eztf.dn.network_optimizer.solver.RemoveServerProblemChange;
+import lv.lu.eztf.dn.network_optimizer.solver.WarmStart;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @Slf4j
 @RequestMapping("/api")
 public class NetworkOptimizerApiController {
+    public static final String SMILE_MEDIA_TYPE_VALUE = "application/x-jackson-smile";
+    private static final MediaType SMILE_MEDIA_TYPE = MediaType.parseMediaType(SMILE_MEDIA_TYPE_VALUE);
+
     private final SolverManager<DeploymentPlan, String> solverManager;
-    private final SolutionManager<DeploymentPlan, HardSoftScore> solutionManager;
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final SolutionManager<DeploymentPlan, HardSoftLongScore> solutionManager;
+    private final SolverConfig solverConfig;
+    private final JobStore jobStore;
+    private final JobEventStreams jobEventStreams = new JobEventStreams();
+    private final ScoreInsightCache scoreInsightCache;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory smileFactory = new SmileFactory();
+    // Jobs asking for their own move thread count get a solver manager built for it, shared by all jobs asking the same
+    private final ConcurrentMap<String, SolverManager<DeploymentPlan, String>> solverManagerByMoveThreadCount = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SolverManager<DeploymentPlan, String>> jobIdToSolverManager = new ConcurrentHashMap<>();
 
     public NetworkOptimizerApiController(SolverManager<DeploymentPlan, String> solverManager,
-                                         SolutionManager<DeploymentPlan, HardSoftScore> solutionManager) {
+                                         SolutionManager<DeploymentPlan, HardSoftLongScore> solutionManager,
+                                         ObjectProvider<SolverConfig> solverConfig,
+                                         ObjectMapper objectMapper,
+                                         ObjectProvider<JobStore> jobStore,
+                                         @Value("${network-optimizer.jobs.memory-budget-mb:512}") long jobMemoryBudgetMb,
+                                         @Value("${network-optimizer.jobs.spill-directory:}") String jobSpillDirectory,
+                                         @Value("${network-optimizer.jobs.max-spilled-jobs:1000}") int maxSpilledJobs,
+                                         @Value("${network-optimizer.score-insights.cache-size:64}") int scoreInsightCacheSize,
+                                         @Value("${network-optimizer.score-insights.thread-count:2}") int scoreInsightThreadCount) {
         this.solverManager = solverManager;
         this.solutionManager = solutionManager;
+        this.solverConfig = solverConfig.getIfAvailable(() -> SolverConfig.createFromXmlResource("solverConfig.xml"));
+        this.objectMapper = objectMapper;
+        this.jobStore = jobStore.getIfAvailable(() -> new SpillingJobStore(jobMemoryBudgetMb * 1024 * 1024, maxSpilledJobs,
+                jobSpillDirectory.isBlank() ? null : Path.of(jobSpillDirectory), objectMapper));
+        this.scoreInsightCache = new ScoreInsightCache(scoreInsightCacheSize, scoreInsightThreadCount);
+    }
+
+    @PreDestroy
+    public void closeSolverManagers() {
+        solverManagerByMoveThreadCount.values().forEach(SolverManager::close);
+        jobEventStreams.close();
+        scoreInsightCache.close();
+        jobStore.close();
     }
 
     @GetMapping
     public Collection<String> list() {
-        Collection<String> existingJobIds = jobIdToJob.keySet();
+        Collection<String> existingJobIds = jobStore.jobIds();
         return existingJobIds;
     }
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
-    public String solve(@RequestBody DeploymentPlan problem) {
+    /**
+     * Takes the problem as JSON or as Smile, Jackson's binary JSON, which is smaller and faster to read for big plans.
+     * Either way the body is read as a stream, see {@link DeploymentPlanReader}.
+     *
+     * @param moveThreadCount NONE, AUTO or a number of move threads for this job, the configured default when absent
+     * @param baseJobId an earlier job for a mostly identical problem, its best solution seeds this one, see {@link WarmStart}
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, SMILE_MEDIA_TYPE_VALUE}, produces = MediaType.TEXT_PLAIN_VALUE)
+    public String solve(InputStream body,
+                        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                        @RequestParam(value = "moveThreadCount", required = false) String moveThreadCount,
+                        @RequestParam(value = "baseJobId", required = false) String baseJobId) {
+        DeploymentPlan problem = readProblem(body, contentType);
+        if (baseJobId != null && !baseJobId.isBlank()) {
+            DeploymentPlan base = getSolutionAndCheckForExceptions(baseJobId);
+            int matched = WarmStart.apply(base, problem);
+            log.info("Warm started from job {}: {} of {} deployments taken over.", baseJobId, matched, problem.getDeployments().size());
+        }
+        SolverManager<DeploymentPlan, String> jobSolverManager = solverManagerFor(moveThreadCount);
         String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofSolution(problem));
-        solverManager.solveBuilder()
+        jobStore.put(jobId, Job.ofSolution(problem, 0));
+        jobIdToSolverManager.put(jobId, jobSolverManager);
+        AtomicLong version = new AtomicLong();
+        jobSolverManager.solveBuilder()
                 .withProblemId(jobId)
-                .withProblemFinder(jobId_ -> jobIdToJob.get(jobId).solution)
-                .withBestSolutionConsumer(solution -> jobIdToJob.put(jobId, Job.ofSolution(solution)))
+                .withProblemFinder(jobId_ -> jobStore.get(jobId).solution())
+                .withBestSolutionConsumer(solution -> {
+                    jobStore.put(jobId, Job.ofSolution(solution, version.incrementAndGet()));
+                    jobEventStreams.bestSolutionChanged(jobId, solution);
+                })
+                // Only terminated jobs may leave memory
+                .withFinalBestSolutionConsumer(solution -> {
+                    // Usually the last best solution again, which keeps its version and cached results
+                    Job last = jobStore.get(jobId);
+                    long finalVersion = last != null && last.solution() == solution ? last.version() : version.incrementAndGet();
+                    jobStore.put(jobId, Job.ofFinalSolution(solution, finalVersion));
+                    jobEventStreams.solvingEnded(jobId, solution);
+                    // Any solver manager reports a job it doesn't know as NOT_SOLVING
+                    jobIdToSolverManager.remove(jobId);
+                })
                 .withExceptionHandler((jobId_, exception) -> {
-                    jobIdToJob.put(jobId, Job.ofException(exception));
+                    jobStore.put(jobId, Job.ofException(exception));
+                    jobEventStreams.solvingFailed(jobId, exception);
+                    jobIdToSolverManager.remove(jobId);
                 })
                 .run();
         return jobId;
     }
 
+    private DeploymentPlan readProblem(InputStream body, String contentType) {
+        JsonFactory factory = MediaType.parseMediaType(contentType).isCompatibleWith(SMILE_MEDIA_TYPE)
+                ? smileFactory : objectMapper.getFactory();
+        try {
+            return DeploymentPlanReader.read(factory, body);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can't read the problem: " + e.getOriginalMessage(), e);
+        } catch (IllegalStateException e) {
+            // A dependency cycle, found when the reader resolves the services' dependency closures
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can't read the problem: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds requests to a running job, for example from a new traffic forecast. The solver keeps its current
+     * assignments and only places the new requests, the response comes once the change is applied.
+     */
+    @PostMapping(value = "/{jobId}/requests", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> addRequests(@PathVariable("jobId") String jobId,
+                                               @RequestBody List<RequestDTO> requests) {
+        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
+        Set<String> serviceNames = new HashSet<>();
+        for (Service service : solution.getServiceList()) {
+            serviceNames.add(service.getName());
+        }
+        Set<String> regionNames = new HashSet<>();
+        if (solution.getRegions() != null) {
+            for (Region region : solution.getRegions()) {
+                regionNames.add(region.getName());
+            }
+        }
+        CountableValueRange<Integer> dayRange = solution.getDayRange();
+        List<Request> added = new ArrayList<>(requests.size());
+        for (RequestDTO request : requests) {
+            if (!serviceNames.contains(request.serviceName())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown service '" + request.serviceName() + "'.");
+            }
+            if (request.sourceRegion() != null && !regionNames.contains(request.sourceRegion())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown region '" + request.sourceRegion() + "'.");
+            }
+            if (request.date() == null || !dayRange.contains(EpochDays.of(request.date()))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Request " + request.id() + " isn't dated within the plan's available dates.");
+            }
+            // Only the region name, the problem change resolves it against the working solution
+            Region sourceRegion = request.sourceRegion() == null ? null : new Region(request.sourceRegion(), 0);
+            added.add(new Request(request.id(), request.serviceName(), request.date(),
+                    request.estimatedQueryCount(), request.maxLatencySLA(), sourceRegion));
+        }
+        // Ids are checked by the change itself, this best solution may not have caught up with earlier changes yet
+        AtomicReference<Set<Integer>> takenIds = new AtomicReference<>(Set.of());
+        return addProblemChange(jobId, new AddRequestsProblemChange(added, takenIds::set))
+                .thenRun(() -> {
+                    if (!takenIds.get().isEmpty()) {
+                        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Request IDs " + takenIds.get() + " already exist.");
+                    }
+                });
+    }
+
+    @DeleteMapping("/{jobId}/requests/{requestId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> removeRequest(@PathVariable("jobId") String jobId,
+                                                 @PathVariable("requestId") int requestId) {
+        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
+        if (solution.getRequests().stream().noneMatch(request -> request.getId() == requestId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request ID " + requestId + " not found.");
+        }
+        return addProblemChange(jobId, new RemoveRequestProblemChange(requestId));
+    }
+
+    /**
+     * Takes a server out of service, the deployments it ran are moved elsewhere.
+     */
+    @DeleteMapping("/{jobId}/servers/{serverId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> removeServer(@PathVariable("jobId") String jobId,
+                                                @PathVariable("serverId") int serverId) {
+        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
+        if (solution.getServerList().stream().noneMatch(server -> server.getId() == serverId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Server ID " + serverId + " not found.");
+        }
+        return addProblemChange(jobId, new RemoveServerProblemChange(serverId));
+    }
+
+    /**
+     * Changes the prices of a cost, the ones left out stay as they are.
+     */
+    @PatchMapping(value = "/{jobId}/costs/{costId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> changeCost(@PathVariable("jobId") String jobId,
+                                              @PathVariable("costId") int costId,
+                                              @RequestBody CostDTO cost) {
+        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
+        if (solution.getCosts() == null || solution.getCosts().stream().noneMatch(candidate -> candidate.getId() == costId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cost ID " + costId + " not found.");
+        }
+        return addProblemChange(jobId,
+                new ChangeCostProblemChange(costId, cost.daily(), cost.allocation(), cost.deallocation()));
+    }
+
+    /**
+     * Problem changes only reach jobs that are still solving, the future completes once the solver applied it.
+     */
+    private CompletableFuture<Void> addProblemChange(String jobId, ProblemChange<DeploymentPlan> problemChange) {
+        SolverManager<DeploymentPlan, String> jobSolverManager = solverManagerOf(jobId);
+        if (jobSolverManager.getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job ID '" + jobId + "' isn't solving anymore.");
+        }
+        return jobSolverManager.addProblemChange(jobId, problemChange);
+    }
+
     @GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public DeploymentPlan getSolution(
-            @PathVariable("jobId") String jobId) {
+            @PathVariable("jobId") String jobId, WebRequest webRequest) {
+        SolverStatus solverStatus = solverManagerOf(jobId).getSolverStatus(jobId);
+        if (webRequest.checkNotModified(eTagOf(jobId, solverStatus))) {
+            return null;
+        }
         DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
         solution.solverStatus = solverStatus;
         return solution;
     }
     
+    /**
+     * Best solution updates of a job as server-sent events: the score, the solver status and the deployments that
+     * changed since the previous event. The first event carries every deployment, the stream ends with the job.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable("jobId") String jobId) {
+        getJobAndCheckForExceptions(jobId);
+        return jobEventStreams.subscribe(jobId, () -> jobStore.get(jobId), solverManagerOf(jobId).getSolverStatus(jobId));
+    }
+
+    /**
+     * Streams the plan straight into the response, gzipped when the client accepts it.
+     *
+     * @param compact leaves out the indentation
+     */
     @GetMapping(value = "/{jobId}/download", produces = MediaType.APPLICATION_JSON_VALUE)
-        public ResponseEntity<String> downloadSolution(@PathVariable("jobId") String jobId) throws JsonProcessingException {
+    public ResponseEntity<StreamingResponseBody> downloadSolution(
+            @PathVariable("jobId") String jobId,
+            @RequestParam(value = "compact", defaultValue = "false") boolean compact,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
         // Saņem risinājumu un solver statusu
+        SolverStatus solverStatus = solverManagerOf(jobId).getSolverStatus(jobId);
+        if (webRequest.checkNotModified(eTagOf(jobId, solverStatus))) {
+            return null;
+        }
         DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
         solution.setSolverStatus(solverStatus);
 
         // Konvertē uz JSON
-        ObjectMapper objectMapper = new ObjectMapper();
-        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(solution);
+        // Written while streaming, the container closes the response stream
+        ObjectWriter writer = (compact ? objectMapper.writer() : objectMapper.writerWithDefaultPrettyPrinter())
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                writer.writeValue(gzipOut, solution);
+                gzipOut.finish();
+            } else {
+                writer.writeValue(out, solution);
+            }
+        };
 
         // Sagatavo HTTP atbildi ar "attachment" galveni, lai browsers piedāvātu lejuplādi
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"deployment_plan_" + jobId + ".json\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(json);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
 
+    /**
+     * Computed once per best solution, repeated requests get the cached analysis.
+     */
     @GetMapping(value = "/score/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ScoreAnalysis<HardSoftScore> analyze(
-             @PathVariable("jobId") String jobId) {
-        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
-        return solutionManager.analyze(solution);
+    public CompletableFuture<ScoreAnalysis<HardSoftLongScore>> analyze(
+             @PathVariable("jobId") String jobId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagOf(jobId, null))) {
+            return null;
+        }
+        Job job = getJobAndCheckForExceptions(jobId);
+        return scoreInsightCache.get(jobId, job.version(), "analysis", () -> {
+            // Analysis and explanation update the shadow variables of the same solution, never at the same time
+            synchronized (job.solution()) {
+                return solutionManager.analyze(job.solution());
+            }
+        });
     }
 
+    /**
+     * Computed once per best solution, repeated requests get the cached explanation.
+     */
     @GetMapping(value = "/explanation/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ExplanationDTO explain(@PathVariable("jobId") String jobId) {
-        DeploymentPlan solution = getSolutionAndCheckForExceptions(jobId);
-        ScoreExplanation<DeploymentPlan, HardSoftScore> explanation =
+    public CompletableFuture<ExplanationDTO> explain(@PathVariable("jobId") String jobId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagOf(jobId, null))) {
+            return null;
+        }
+        Job job = getJobAndCheckForExceptions(jobId);
+        return scoreInsightCache.get(jobId, job.version(), "explanation", () -> {
+            synchronized (job.solution()) {
+                return explain(job.solution());
+            }
+        });
+    }
+
+    private ExplanationDTO explain(DeploymentPlan solution) {
+        ScoreExplanation<DeploymentPlan, HardSoftLongScore> explanation =
                 solutionManager.explain(solution);
 
         // Get server costs
@@ -109,13 +387,13 @@ public class NetworkOptimizerApiController {
                 .filter(entry -> entry.getKey() instanceof Server)
                 .map(entry -> {
                     Server server = (Server) entry.getKey();
-                    Indictment<HardSoftScore> indictment = entry.getValue();
+                    Indictment<HardSoftLongScore> indictment = entry.getValue();
 
-                    Map<String, Integer> costByConstraint = indictment.getConstraintMatchSet()
+                    Map<String, Long> costByConstraint = indictment.getConstraintMatchSet()
                             .stream()
                             .collect(Collectors.groupingBy(
                                     match -> match.getConstraintRef().constraintName(),
-                                    Collectors.summingInt(match ->
+                                    Collectors.summingLong(match ->
                                             match.getScore().softScore())
                             ));
 
@@ -135,7 +413,7 @@ public class NetworkOptimizerApiController {
                         entry.getValue().getScore().softScore() < 0)
                 .map(entry -> {
                     Request request = (Request) entry.getKey();
-                    Indictment<HardSoftScore> indictment = entry.getValue();
+                    Indictment<HardSoftLongScore> indictment = entry.getValue();
 
                     // Get constraint violations for this request
                     Map<String, ConstraintDetailDTO> violations = indictment.getConstraintMatchSet()
@@ -147,9 +425,9 @@ public class NetworkOptimizerApiController {
                                     Collectors.collectingAndThen(
                                             Collectors.toList(),
                                             matches -> {
-                                                HardSoftScore totalScore = matches.stream()
+                                                HardSoftLongScore totalScore = matches.stream()
                                                         .map(ConstraintMatch::getScore)
-                                                        .reduce(HardSoftScore.ZERO, HardSoftScore::add);
+                                                        .reduce(HardSoftLongScore.ZERO, HardSoftLongScore::add);
 
                                                 // Get justification objects (the entities involved)
                                                 List<Object> justifications = matches.stream()
@@ -179,36 +457,84 @@ public class NetworkOptimizerApiController {
         return new ExplanationDTO(serverCosts, problematicRequests);
     }
 
-    private DeploymentPlan getSolutionAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
-        if (job == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job ID '" + jobId + "' not found.");
+    private SolverManager<DeploymentPlan, String> solverManagerFor(String moveThreadCount) {
+        if (moveThreadCount == null || moveThreadCount.isBlank()) {
+            return solverManager;
         }
-        if (job.exception != null) {
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Solving job '" + jobId + "' failed: " + job.exception.getMessage(),
-                    job.exception);
+        return solverManagerByMoveThreadCount.computeIfAbsent(normalizeMoveThreadCount(moveThreadCount), count -> {
+            SolverFactory<DeploymentPlan> solverFactory =
+                    SolverFactory.create(new SolverConfig(solverConfig).withMoveThreadCount(count));
+            try {
+                // Fail the request right away when move threads aren't available instead of failing the job later
+                solverFactory.buildSolver();
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Move thread count '" + count + "' can't be used: " + e.getMessage(), e);
+            }
+            return SolverManager.create(solverFactory);
+        });
+    }
+
+    /**
+     * NONE, AUTO or a number between 1 and the available processors, so at most that many solver managers are built.
+     */
+    private static String normalizeMoveThreadCount(String moveThreadCount) {
+        String count = moveThreadCount.trim().toUpperCase(Locale.ROOT);
+        if (count.equals(SolverConfig.MOVE_THREAD_COUNT_NONE) || count.equals(SolverConfig.MOVE_THREAD_COUNT_AUTO)) {
+            return count;
+        }
+        int maxCount = Runtime.getRuntime().availableProcessors();
+        try {
+            int parsed = Integer.parseInt(count);
+            if (parsed >= 1 && parsed <= maxCount) {
+                return Integer.toString(parsed);
+            }
+        } catch (NumberFormatException e) {
+            // Rejected below
         }
-        return job.solution;
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Move thread count '" + moveThreadCount
+                + "' must be NONE, AUTO or a number between 1 and " + maxCount + ".");
     }
 
-    private record Job(DeploymentPlan solution, Throwable exception) {
+    private SolverManager<DeploymentPlan, String> solverManagerOf(String jobId) {
+        return jobIdToSolverManager.getOrDefault(jobId, solverManager);
+    }
 
-        static Job ofSolution(DeploymentPlan solution) {
-            return new Job(solution, null);
+    /**
+     * Changes with every best solution and, when given, the solver status, so clients polling an unchanged job
+     * get a 304 without the job being loaded or serialised. Null for unknown jobs, which then get their 404.
+     */
+    private String eTagOf(String jobId, SolverStatus solverStatus) {
+        Long version = jobStore.version(jobId);
+        if (version == null) {
+            return null;
         }
+        return "\"" + version + (solverStatus == null ? "" : "-" + solverStatus) + "\"";
+    }
 
-        static Job ofException(Throwable error) {
-            return new Job(null, error);
+    private DeploymentPlan getSolutionAndCheckForExceptions(String jobId) {
+        return getJobAndCheckForExceptions(jobId).solution();
+    }
+
+    private Job getJobAndCheckForExceptions(String jobId) {
+        Job job = jobStore.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job ID '" + jobId + "' not found.");
+        }
+        if (job.exception() != null) {
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Solving job '" + jobId + "' failed: " + job.exception().getMessage(),
+                    job.exception());
         }
+        return job;
     }
 
     public record ServerCostDTO(
             long serverId,
             String serverName,
-            int softCost,
-            Map<String, Integer> costByConstraint
+            long softCost,
+            Map<String, Long> costByConstraint
     ) {}
 
     public record ExplanationDTO(
@@ -219,14 +545,29 @@ public class NetworkOptimizerApiController {
     public record RequestIssueDTO(
             long requestId,
             String requestName,
-            int hardScore,
-            int softScore,
+            long hardScore,
+            long softScore,
             Map<String, ConstraintDetailDTO> violations
     ) {}
 
+    public record RequestDTO(
+            int id,
+            String serviceName,
+            Date date,
+            int estimatedQueryCount,
+            float maxLatencySLA,
+            String sourceRegion // Region name
+    ) {}
+
+    public record CostDTO(
+            BigDecimal daily,
+            BigDecimal allocation,
+            BigDecimal deallocation
+    ) {}
+
     public record ConstraintDetailDTO(
-            int hardScore,
-            int softScore,
+            long hardScore,
+            long softScore,
             List<Object> involvedEntities // The justifications (servers, deployments, etc.)
     ) {}
 
@@ -0,0 +1,70 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Score analyses and explanations of job solutions, computed at most once per job, kind and best solution version
+ * on a small pool of its own, so HTTP request threads never do the work. Holds at most a fixed number of results,
+ * least recently used first out, and drops older versions of a job as soon as a newer one is asked for.
+ * A failed computation isn't cached.
+ */
+public class ScoreInsightCache implements AutoCloseable {
+
+    private final int maxEntries;
+    private final ExecutorService executor;
+    private final LinkedHashMap<Key, CompletableFuture<?>> results;
+
+    public ScoreInsightCache(int maxEntries, int threadCount) {
+        this.maxEntries = maxEntries;
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "score-insight");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<?>> eldest) {
+                return size() > ScoreInsightCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param kind tells apart the different results cached for the same solution
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<T> get(String jobId, long version, String kind, Supplier<T> computation) {
+        Key key = new Key(jobId, version, kind);
+        CompletableFuture<T> result = (CompletableFuture<T>) results.get(key);
+        if (result != null) {
+            return result;
+        }
+        results.keySet().removeIf(other -> other.jobId.equals(jobId) && other.kind.equals(kind) && other.version < version);
+        result = CompletableFuture.supplyAsync(computation, executor);
+        results.put(key, result);
+        CompletableFuture<T> cached = result;
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                forget(key, cached);
+            }
+        });
+        return result;
+    }
+
+    private synchronized void forget(Key key, CompletableFuture<?> result) {
+        results.remove(key, result);
+    }
+
+    @Override
+    public synchronized void close() {
+        results.clear();
+        executor.shutdownNow();
+    }
+
+    private record Key(String jobId, long version, String kind) {
+    }
+}
@@ -0,0 +1,297 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Job store with a memory budget. Once the estimated size of the solutions in memory exceeds the budget,
+ * the least recently used terminated jobs are written to the spill directory as gzipped JSON and dropped
+ * from memory. They are read back the next time they are asked for. Beyond the maximum number of spilled jobs,
+ * the longest spilled ones are forgotten and their files deleted.
+ * <p>
+ * Jobs that are still solving and failed jobs always stay in memory. Terminated jobs never change again,
+ * so a spill file is written only once and reused when a reloaded job is evicted again.
+ * <p>
+ * Spill files are written and deleted by a background thread, in the order the store decided on them, so
+ * putting a job never waits for the disk. A job stays readable from memory until its spill file is written.
+ * Reloading a spilled job reads its file outside the store's lock.
+ */
+@Slf4j
+public class SpillingJobStore implements JobStore {
+
+    // Rough heap footprint per object, including its share of lists and identity maps of the solver
+    private static final long PLAN_BYTES = 4_096;
+    private static final long REQUEST_BYTES = 160;
+    private static final long DEPLOYMENT_BYTES = 200;
+    private static final long FACT_BYTES = 120;
+
+    private final long memoryBudgetBytes;
+    private final int maxSpilledJobs;
+    private final Path spillDirectory;
+    private final boolean ownsSpillDirectory;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService spillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Access ordered, so iteration starts at the least recently used job
+    private final LinkedHashMap<String, StoredJob> inMemory = new LinkedHashMap<>(16, 0.75f, true);
+    // Insertion ordered, so iteration starts at the longest spilled job
+    private final Set<String> spilled = new LinkedHashSet<>();
+    // Spilled jobs whose file isn't written yet
+    private final Map<String, Job> pendingSpills = new HashMap<>();
+    // Versions of all jobs, looking one up doesn't count as a use of the job
+    private final Map<String, Long> versions = new HashMap<>();
+    private long usedBytes;
+
+    /**
+     * @param spillDirectory where evicted jobs are written, a temporary directory removed on close when null
+     * @param objectMapper the application's mapper, the spill files are written with a copy of it
+     */
+    @SuppressWarnings("deprecation")
+    public SpillingJobStore(long memoryBudgetBytes, int maxSpilledJobs, Path spillDirectory, ObjectMapper objectMapper) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxSpilledJobs = maxSpilledJobs;
+        // Derived getters such as Deployment.active and impactedServices are written too, they are skipped on reload
+        this.objectMapper = objectMapper.copy()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(MapperFeature.USE_GETTERS_AS_SETTERS);
+        try {
+            if (spillDirectory == null) {
+                this.spillDirectory = Files.createTempDirectory("network-optimizer-jobs");
+                this.ownsSpillDirectory = true;
+            } else {
+                this.spillDirectory = Files.createDirectories(spillDirectory);
+                this.ownsSpillDirectory = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create the job spill directory.", e);
+        }
+    }
+
+    @Override
+    public synchronized void put(String jobId, Job job) {
+        long bytes = estimateBytes(job.solution());
+        StoredJob previous = inMemory.put(jobId, new StoredJob(job, bytes, false));
+        if (previous != null) {
+            usedBytes -= previous.bytes;
+        }
+        usedBytes += bytes;
+        versions.put(jobId, job.version());
+        boolean wasSpilled = spilled.remove(jobId);
+        boolean spillPending = pendingSpills.remove(jobId) != null;
+        if (wasSpilled || spillPending || previous != null && previous.spillFileWritten) {
+            // The spill file no longer matches the job
+            deleteSpillFile(jobId);
+        }
+        evict(jobId);
+    }
+
+    @Override
+    public Job get(String jobId) {
+        synchronized (this) {
+            StoredJob stored = inMemory.get(jobId);
+            if (stored != null) {
+                return stored.job;
+            }
+            Job pending = pendingSpills.get(jobId);
+            if (pending != null || !spilled.contains(jobId)) {
+                return pending;
+            }
+        }
+        DeploymentPlan solution;
+        try {
+            solution = read(jobId);
+        } catch (UncheckedIOException e) {
+            synchronized (this) {
+                if (!spilled.contains(jobId)) {
+                    // Put again or forgotten while reading
+                    StoredJob stored = inMemory.get(jobId);
+                    return stored == null ? null : stored.job;
+                }
+            }
+            throw e;
+        }
+        synchronized (this) {
+            StoredJob stored = inMemory.get(jobId);
+            if (stored != null) {
+                // Put again or reloaded by another reader meanwhile
+                return stored.job;
+            }
+            if (!spilled.remove(jobId)) {
+                return null;
+            }
+            Job job = Job.ofFinalSolution(solution, versions.get(jobId));
+            long bytes = estimateBytes(job.solution());
+            // The spill file is kept, it still matches the job when evicted again
+            inMemory.put(jobId, new StoredJob(job, bytes, true));
+            usedBytes += bytes;
+            evict(jobId);
+            return job;
+        }
+    }
+
+    @Override
+    public synchronized Long version(String jobId) {
+        return versions.get(jobId);
+    }
+
+    @Override
+    public synchronized Collection<String> jobIds() {
+        List<String> jobIds = new ArrayList<>(inMemory.size() + spilled.size());
+        jobIds.addAll(inMemory.keySet());
+        jobIds.addAll(spilled);
+        return jobIds;
+    }
+
+    @Override
+    public void close() {
+        spillExecutor.shutdownNow();
+        try {
+            spillExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            inMemory.clear();
+            spilled.clear();
+            pendingSpills.clear();
+            versions.clear();
+            usedBytes = 0;
+        }
+        if (ownsSpillDirectory) {
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                files.forEach(file -> file.toFile().delete());
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException e) {
+                log.warn("Can't remove job spill directory {}.", spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * Spills least recently used terminated jobs until the budget is met, never the job that was just touched,
+     * then forgets the longest spilled jobs beyond the maximum.
+     */
+    private void evict(String touchedJobId) {
+        Iterator<Map.Entry<String, StoredJob>> it = inMemory.entrySet().iterator();
+        while (usedBytes > memoryBudgetBytes && it.hasNext()) {
+            Map.Entry<String, StoredJob> entry = it.next();
+            String jobId = entry.getKey();
+            Job job = entry.getValue().job;
+            if (jobId.equals(touchedJobId) || !job.terminated() || job.solution() == null) {
+                continue;
+            }
+            if (!entry.getValue().spillFileWritten) {
+                pendingSpills.put(jobId, job);
+                spillExecutor.execute(() -> spill(jobId, job, entry.getValue().bytes));
+            }
+            it.remove();
+            usedBytes -= entry.getValue().bytes;
+            spilled.add(jobId);
+        }
+        for (Iterator<String> spilledIt = spilled.iterator(); spilled.size() > maxSpilledJobs && spilledIt.hasNext(); ) {
+            String jobId = spilledIt.next();
+            spilledIt.remove();
+            pendingSpills.remove(jobId);
+            versions.remove(jobId);
+            deleteSpillFile(jobId);
+        }
+    }
+
+    /**
+     * Runs on the spill thread. A job that was put again or forgotten meanwhile gets its file deleted by a task
+     * queued after this one.
+     */
+    private void spill(String jobId, Job job, long bytes) {
+        try {
+            write(spillFile(jobId), job.solution());
+        } catch (UncheckedIOException e) {
+            log.warn("Keeping job {} in memory.", jobId, e);
+            synchronized (this) {
+                if (pendingSpills.remove(jobId, job) && spilled.remove(jobId)) {
+                    inMemory.put(jobId, new StoredJob(job, bytes, false));
+                    usedBytes += bytes;
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            pendingSpills.remove(jobId, job);
+        }
+    }
+
+    private void write(Path file, DeploymentPlan solution) {
+        // Written next to the target first, a crash never leaves a half written spill file behind
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            objectMapper.writeValue(out, solution);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't spill job to " + file + ".", e);
+        }
+        try {
+            Files.move(partial, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't spill job to " + file + ".", e);
+        }
+    }
+
+    private DeploymentPlan read(String jobId) {
+        Path file = spillFile(jobId);
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return objectMapper.readValue(in, DeploymentPlan.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't reload job from " + file + ".", e);
+        }
+    }
+
+    private void deleteSpillFile(String jobId) {
+        spillExecutor.execute(() -> {
+            try {
+                Files.deleteIfExists(spillFile(jobId));
+            } catch (IOException e) {
+                log.warn("Can't remove spill file of job {}.", jobId, e);
+            }
+        });
+    }
+
+    private Path spillFile(String jobId) {
+        return spillDirectory.resolve(jobId + ".json.gz");
+    }
+
+    static long estimateBytes(DeploymentPlan solution) {
+        if (solution == null) {
+            return 0;
+        }
+        long facts = size(solution.getServerList()) + size(solution.getServiceList())
+                + size(solution.getLatencies()) + size(solution.getCosts()) + size(solution.getRegions())
+                + size(solution.getServiceDependencies());
+        return PLAN_BYTES
+                + size(solution.getRequests()) * REQUEST_BYTES
+                + size(solution.getDeployments()) * DEPLOYMENT_BYTES
+                + facts * FACT_BYTES;
+    }
+
+    private static long size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
+    private record StoredJob(Job job, long bytes, boolean spillFileWritten) {
+    }
+}
@@ -0,0 +1,63 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Region;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Adds new requests to a running job, unassigned. The solver restarts from its best solution, so the greedy
+ * placement and construction heuristics only place these requests and the local search carries on from there.
+ * <p>
+ * The given requests only name their source region, it is resolved against the working solution and an unknown
+ * one fails the change. Ids are checked against the working solution too, the best solution a caller validated
+ * against may be behind it: if any id is taken, nothing is added and the taken ids go to {@code takenIds}.
+ */
+public record AddRequestsProblemChange(List<Request> requests, Consumer<Set<Integer>> takenIds)
+        implements ProblemChange<DeploymentPlan> {
+
+    @Override
+    public void doChange(DeploymentPlan workingSolution, ProblemChangeDirector problemChangeDirector) {
+        Set<Integer> ids = new HashSet<>();
+        for (Request request : workingSolution.getRequests()) {
+            ids.add(request.getId());
+        }
+        Set<Integer> taken = new TreeSet<>();
+        for (Request request : requests) {
+            if (!ids.add(request.getId())) {
+                taken.add(request.getId());
+            }
+        }
+        if (!taken.isEmpty()) {
+            takenIds.accept(taken);
+            return;
+        }
+        Map<String, Region> regionsByName = new HashMap<>();
+        if (workingSolution.getRegions() != null) {
+            for (Region region : workingSolution.getRegions()) {
+                regionsByName.put(region.getName(), region);
+            }
+        }
+        // Resolved up front, so an unknown region leaves the working solution as it was
+        List<Request> added = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            Region sourceRegion = null;
+            if (request.getSourceRegion() != null) {
+                sourceRegion = regionsByName.get(request.getSourceRegion().getName());
+                if (sourceRegion == null) {
+                    throw new IllegalArgumentException("Request " + request.getId() + " has an unknown source region '"
+                            + request.getSourceRegion().getName() + "'.");
+                }
+            }
+            added.add(new Request(request.getId(), request.getServiceName(), request.getDate(),
+                    request.getEstimatedQueryCount(), request.getMaxLatencySLA(), sourceRegion));
+        }
+        for (Request request : added) {
+            problemChangeDirector.addEntity(request, workingSolution.getRequests()::add);
+        }
+    }
+}
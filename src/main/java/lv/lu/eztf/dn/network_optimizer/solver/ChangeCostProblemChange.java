@@ -0,0 +1,76 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import lv.lu.eztf.dn.network_optimizer.domain.Cost;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes the prices of a cost in a running job, null prices stay as they are.
+ * <p>
+ * Problem facts and their lists are shared with the best solutions published before, so the cost is never changed
+ * in place: it is replaced by a new cost, and every server charged with it by a new server charged with that one.
+ * Deployments on those servers move to the replacements.
+ */
+public record ChangeCostProblemChange(int costId, BigDecimal daily, BigDecimal allocation, BigDecimal deallocation)
+        implements ProblemChange<DeploymentPlan> {
+
+    @Override
+    public void doChange(DeploymentPlan workingSolution, ProblemChangeDirector problemChangeDirector) {
+        if (workingSolution.getCosts() == null) {
+            return;
+        }
+        List<Cost> costs = new ArrayList<>(workingSolution.getCosts());
+        int costIndex = -1;
+        for (int i = 0; i < costs.size(); i++) {
+            if (costs.get(i).getId() == costId) {
+                costIndex = i;
+                break;
+            }
+        }
+        if (costIndex < 0) {
+            return;
+        }
+        Cost cost = costs.get(costIndex);
+        Cost replacement = new Cost(cost.getId(),
+                daily != null ? daily : cost.getDaily(),
+                allocation != null ? allocation : cost.getAllocation(),
+                deallocation != null ? deallocation : cost.getDeallocation());
+        costs.set(costIndex, replacement);
+        workingSolution.setCosts(costs);
+
+        List<Server> servers = new ArrayList<>(workingSolution.getServerList());
+        workingSolution.setServerList(servers);
+        for (int i = 0; i < servers.size(); i++) {
+            Server server = servers.get(i);
+            if (server.getCost() == cost) {
+                replaceServer(workingSolution, problemChangeDirector, server, i, replacement);
+            }
+        }
+    }
+
+    private static void replaceServer(DeploymentPlan workingSolution, ProblemChangeDirector problemChangeDirector,
+                                      Server server, int index, Cost cost) {
+        Server replacement = new Server(server.getId(), server.getName(), server.getCpuCores(), server.getRamGB(),
+                server.getStorageGB(), server.getRegion(), cost);
+        List<Deployment> hosted = new ArrayList<>();
+        for (Deployment deployment : workingSolution.getDeployments()) {
+            if (deployment.getServer() == server) {
+                hosted.add(deployment);
+                problemChangeDirector.changeVariable(deployment, "server", d -> d.setServer(null));
+            }
+        }
+        // Removed before the replacement comes, both have the same planning id
+        problemChangeDirector.removeProblemFact(server, workingSolution.getServerList()::remove);
+        problemChangeDirector.addProblemFact(replacement, s -> workingSolution.getServerList().add(index, s));
+        for (Deployment deployment : hosted) {
+            problemChangeDirector.changeVariable(deployment, "server", d -> d.setServer(replacement));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.ChangeMove;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+import lv.lu.eztf.dn.network_optimizer.domain.Service;
+
+/**
+ * Prunes service and server change moves that can only break hard constraints:
+ * a server is only offered if one instance of the deployment's service fits on it,
+ * and a service is only offered if it fits the current server and matches every request already assigned.
+ * Unassigning (null) is always allowed.
+ */
+public class CompatiblePlacementMoveFilter implements SelectionFilter<DeploymentPlan, Move<DeploymentPlan>> {
+
+    @Override
+    public boolean accept(ScoreDirector<DeploymentPlan> scoreDirector, Move<DeploymentPlan> move) {
+        if (!(move instanceof ChangeMove<DeploymentPlan> change)) {
+            return true;
+        }
+        Deployment deployment = (Deployment) change.getEntity();
+        return switch (change.getVariableName()) {
+            case "server" -> {
+                Server server = (Server) change.getToPlanningValue();
+                yield server == null || deployment.getService() == null || server.canHost(deployment.getService());
+            }
+            case "service" -> {
+                Service service = (Service) change.getToPlanningValue();
+                if (service == null) {
+                    yield deployment.getRequestCount() == 0;
+                }
+                if (deployment.getServer() != null && !deployment.getServer().canHost(service)) {
+                    yield false;
+                }
+                if (deployment.getRequests() != null) {
+                    for (Request request : deployment.getRequests()) {
+                        if (!service.getName().equals(request.getServiceName())) {
+                            yield false;
+                        }
+                    }
+                }
+                yield true;
+            }
+            default -> true;
+        };
+    }
+}
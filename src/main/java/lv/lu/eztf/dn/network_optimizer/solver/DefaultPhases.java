@@ -0,0 +1,30 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.config.solver.SolverConfig;
+
+/**
+ * The phases of solverConfig.xml, for configs that solve the same way under other settings (a part of a
+ * partitioned plan, a benchmark) so the greedy placement, construction heuristics and local search move
+ * selectors are only written down once.
+ */
+public final class DefaultPhases {
+
+    public static final String SOLVER_CONFIG_RESOURCE = "solverConfig.xml";
+
+    private DefaultPhases() {
+    }
+
+    /**
+     * Gives a config without phases those of solverConfig.xml, a config with phases of its own is left alone.
+     *
+     * @return the same config
+     */
+    public static SolverConfig inherit(SolverConfig solverConfig) {
+        if (solverConfig.getPhaseConfigList() == null || solverConfig.getPhaseConfigList().isEmpty()) {
+            // Loaded anew every time, phase configs are mutable and mustn't be shared between solver configs
+            solverConfig.setPhaseConfigList(
+                    SolverConfig.createFromXmlResource(SOLVER_CONFIG_RESOURCE).getPhaseConfigList());
+        }
+        return solverConfig;
+    }
+}
@@ -0,0 +1,115 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+
+import java.util.*;
+
+/**
+ * Moves a deployment together with the deployments of its dependency closure to one server and date window,
+ * so the co-location required by allRequestsProcessed never breaks halfway through the move.
+ * The first deployment is the one the move was built for, the rest are its dependencies.
+ */
+public class DependencyClosureMove extends AbstractMove<DeploymentPlan> {
+
+    private final List<Deployment> deployments;
+    private final Server toServer;
+    private final Integer toDayFrom;
+    private final Integer toDayTo;
+
+    public DependencyClosureMove(List<Deployment> deployments, Server toServer, Integer toDayFrom, Integer toDayTo) {
+        this.deployments = deployments;
+        this.toServer = toServer;
+        this.toDayFrom = toDayFrom;
+        this.toDayTo = toDayTo;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<DeploymentPlan> scoreDirector) {
+        for (Deployment deployment : deployments) {
+            if (deployment.getServer() != toServer
+                    || !Objects.equals(deployment.getDayFrom(), toDayFrom)
+                    || !Objects.equals(deployment.getDayTo(), toDayTo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<DeploymentPlan> scoreDirector) {
+        for (Deployment deployment : deployments) {
+            if (deployment.getServer() != toServer) {
+                scoreDirector.beforeVariableChanged(deployment, "server");
+                deployment.setServer(toServer);
+                scoreDirector.afterVariableChanged(deployment, "server");
+            }
+            if (!Objects.equals(deployment.getDayFrom(), toDayFrom)) {
+                scoreDirector.beforeVariableChanged(deployment, "dayFrom");
+                deployment.setDayFrom(toDayFrom);
+                scoreDirector.afterVariableChanged(deployment, "dayFrom");
+            }
+            if (!Objects.equals(deployment.getDayTo(), toDayTo)) {
+                scoreDirector.beforeVariableChanged(deployment, "dayTo");
+                deployment.setDayTo(toDayTo);
+                scoreDirector.afterVariableChanged(deployment, "dayTo");
+            }
+        }
+    }
+
+    @Override
+    public DependencyClosureMove rebase(ScoreDirector<DeploymentPlan> destinationScoreDirector) {
+        return new DependencyClosureMove(rebaseList(deployments, destinationScoreDirector),
+                destinationScoreDirector.lookUpWorkingObject(toServer), toDayFrom, toDayTo);
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return "DependencyClosureMove(Deployment.server+dayFrom+dayTo)";
+    }
+
+    @Override
+    public Collection<Deployment> getPlanningEntities() {
+        return deployments;
+    }
+
+    @Override
+    public Collection<Object> getPlanningValues() {
+        return Arrays.asList(toServer, toDayFrom, toDayTo);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DependencyClosureMove other)) {
+            return false;
+        }
+        return deployments.equals(other.deployments)
+                && toServer == other.toServer
+                && Objects.equals(toDayFrom, other.toDayFrom)
+                && Objects.equals(toDayTo, other.toDayTo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(deployments, toServer, toDayFrom, toDayTo);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (Deployment deployment : deployments) {
+            if (!s.isEmpty()) {
+                s.append(", ");
+            }
+            s.append(deployment.getId()).append(" {").append(deployment.getServer() == null ? null : deployment.getServer().getId())
+                    .append(" ").append(deployment.getDayFrom()).append("-").append(deployment.getDayTo()).append("}");
+        }
+        return "[" + s + "] -> {" + (toServer == null ? null : toServer.getId()) + " " + toDayFrom + "-" + toDayTo + "}";
+    }
+}
@@ -0,0 +1,145 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.domain.valuerange.CountableValueRange;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.util.*;
+
+/**
+ * Generates {@link DependencyClosureMove}s for deployments whose service has dependencies.
+ * For every dependency the deployment already co-located with the parent (same server, overlapping window) is taken,
+ * otherwise any deployment of that service. The target server must be able to host each of the moved services,
+ * the date window is either kept or drawn from the plan's day range.
+ */
+public class DependencyClosureMoveIteratorFactory implements MoveIteratorFactory<DeploymentPlan, DependencyClosureMove> {
+
+    // Gives up finding a deployment with dependencies after this many tries per move
+    private static final int MAX_ATTEMPTS = 10;
+
+    @Override
+    public long getSize(ScoreDirector<DeploymentPlan> scoreDirector) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        return (long) plan.getDeployments().size() * plan.getServerList().size();
+    }
+
+    /**
+     * Every deployment with dependencies in list order, with the first deployment of each dependency when none is
+     * co-located, to every server in list order that can host them all. The window is kept, or spans the whole day
+     * range when the deployment has no valid one.
+     */
+    @Override
+    public Iterator<DependencyClosureMove> createOriginalMoveIterator(ScoreDirector<DeploymentPlan> scoreDirector) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        CountableValueRange<Integer> dayRange = plan.getDayRange();
+        if (dayRange.getSize() == 0) {
+            return Collections.emptyIterator();
+        }
+        return plan.getDeployments().stream()
+                .filter(parent -> parent.getService() != null && parent.getService().totalContainedServices().size() > 1)
+                .flatMap(parent -> {
+                    List<Deployment> moved = closureOf(parent, plan, null);
+                    Integer dayFrom = parent.hasValidDates() ? parent.getDayFrom() : dayRange.get(0);
+                    Integer dayTo = parent.hasValidDates() ? parent.getDayTo() : dayRange.get(dayRange.getSize() - 1);
+                    return compatibleServers(moved, plan).stream()
+                            .map(server -> new DependencyClosureMove(moved, server, dayFrom, dayTo));
+                })
+                .iterator();
+    }
+
+    @Override
+    public Iterator<DependencyClosureMove> createRandomMoveIterator(ScoreDirector<DeploymentPlan> scoreDirector, Random random) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        CountableValueRange<Integer> dayRange = plan.getDayRange();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !plan.getDeployments().isEmpty() && !plan.getServerList().isEmpty() && dayRange.getSize() > 0;
+            }
+
+            @Override
+            public DependencyClosureMove next() {
+                Deployment parent = null;
+                for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                    parent = plan.getDeployments().get(random.nextInt(plan.getDeployments().size()));
+                    if (parent.getService() != null && parent.getService().totalContainedServices().size() > 1) {
+                        break;
+                    }
+                }
+                List<Deployment> moved = closureOf(parent, plan, random);
+
+                Integer dayFrom = parent.getDayFrom();
+                Integer dayTo = parent.getDayTo();
+                if (!parent.hasValidDates() || random.nextBoolean()) {
+                    int a = dayRange.get(random.nextLong(dayRange.getSize()));
+                    int b = dayRange.get(random.nextLong(dayRange.getSize()));
+                    dayFrom = Math.min(a, b);
+                    dayTo = Math.max(a, b);
+                }
+                return new DependencyClosureMove(moved, pickServer(moved, plan, random), dayFrom, dayTo);
+            }
+        };
+    }
+
+    /**
+     * @param random picks among the deployments of a dependency that isn't co-located, null takes the first
+     */
+    private static List<Deployment> closureOf(Deployment parent, DeploymentPlan plan, Random random) {
+        List<Deployment> moved = new ArrayList<>();
+        moved.add(parent);
+        if (parent.getService() == null) {
+            return moved;
+        }
+        for (Service dependency : parent.getService().totalContainedServices()) {
+            if (dependency == parent.getService()) {
+                continue;
+            }
+            Deployment coLocated = null;
+            List<Deployment> others = new ArrayList<>();
+            for (Deployment deployment : plan.getDeployments()) {
+                if (deployment.getService() != dependency || moved.contains(deployment)) {
+                    continue;
+                }
+                if (parent.getServer() != null && deployment.getServer() == parent.getServer() && overlaps(parent, deployment)) {
+                    coLocated = deployment;
+                    break;
+                }
+                others.add(deployment);
+            }
+            if (coLocated != null) {
+                moved.add(coLocated);
+            } else if (!others.isEmpty()) {
+                moved.add(others.get(random == null ? 0 : random.nextInt(others.size())));
+            }
+        }
+        return moved;
+    }
+
+    private static boolean overlaps(Deployment a, Deployment b) {
+        return a.hasValidDates() && b.hasValidDates() && a.getDayFrom() <= b.getDayTo() && b.getDayFrom() <= a.getDayTo();
+    }
+
+    private static Server pickServer(List<Deployment> moved, DeploymentPlan plan, Random random) {
+        List<Server> candidates = compatibleServers(moved, plan);
+        List<Server> from = candidates.isEmpty() ? plan.getServerList() : candidates;
+        return from.get(random.nextInt(from.size()));
+    }
+
+    private static List<Server> compatibleServers(List<Deployment> moved, DeploymentPlan plan) {
+        List<Server> candidates = new ArrayList<>();
+        for (Server server : plan.getServerList()) {
+            boolean fits = true;
+            for (Deployment deployment : moved) {
+                if (deployment.getService() != null && !server.canHost(deployment.getService())) {
+                    fits = false;
+                    break;
+                }
+            }
+            if (fits) {
+                candidates.add(server);
+            }
+        }
+        return candidates;
+    }
+}
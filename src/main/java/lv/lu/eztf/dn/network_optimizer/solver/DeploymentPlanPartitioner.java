@@ -0,0 +1,375 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.util.*;
+
+/**
+ * Splits a plan into parts that barely interact: one part per connected component of the service dependency graph
+ * (services that don't share a dependency never have to be co-located), holding the requests for those services.
+ * Servers already used by a deployment stay with its part, the others are handed out by region affinity, every
+ * server goes to the part whose requests are closest to it, so parts never compete for capacity.
+ * Deployment slots are divided by request count.
+ * <p>
+ * Parts hold copies of the deployments and requests, the problem facts are shared.
+ * Parts whose deployments share a server are merged, and so are the smallest components when there are fewer
+ * servers than components. A part no server can host joins another part, without any usable server the plan
+ * isn't split at all.
+ */
+public class DeploymentPlanPartitioner implements SolutionPartitioner<DeploymentPlan> {
+
+    @Override
+    public List<DeploymentPlan> splitWorkingSolution(ScoreDirector<DeploymentPlan> scoreDirector, Integer runnablePartThreadLimit) {
+        return split(scoreDirector.getWorkingSolution());
+    }
+
+    public List<DeploymentPlan> split(DeploymentPlan plan) {
+        List<Part> parts = componentParts(plan);
+        if (parts.isEmpty()) {
+            return List.of();
+        }
+        mergeSharedServers(parts);
+        while (parts.size() > Math.max(1, plan.getServerList().size())) {
+            parts.sort(Comparator.comparingLong(Part::queries));
+            Part smallest = parts.remove(0);
+            parts.get(0).absorb(smallest);
+        }
+        if (!assignServers(plan, parts)) {
+            return List.of();
+        }
+        assignDeployments(plan, parts);
+        // Out of slots: parts left without any can't place their requests, they join the biggest part
+        parts.sort(Comparator.comparingLong(Part::queries).reversed());
+        for (Iterator<Part> it = parts.listIterator(1); it.hasNext(); ) {
+            Part part = it.next();
+            if (part.deployments.isEmpty()) {
+                parts.get(0).absorb(part);
+                it.remove();
+            }
+        }
+
+        List<DeploymentPlan> subPlans = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            subPlans.add(part.toSubPlan(plan));
+        }
+        return subPlans;
+    }
+
+    /**
+     * One part per dependency component that has requests, requests for unknown services go to the biggest part.
+     */
+    private static List<Part> componentParts(DeploymentPlan plan) {
+        Map<Service, Service> parent = new IdentityHashMap<>();
+        for (Service service : plan.getServiceList()) {
+            parent.putIfAbsent(service, service);
+            if (service.getDependencies() != null) {
+                for (Service dependency : service.getDependencies()) {
+                    parent.putIfAbsent(dependency, dependency);
+                    union(parent, service, dependency);
+                }
+            }
+        }
+        Map<Service, Part> partByRoot = new IdentityHashMap<>();
+        for (Service service : plan.getServiceList()) {
+            partByRoot.computeIfAbsent(find(parent, service), root -> new Part()).services.add(service);
+        }
+        Map<String, Part> partByServiceName = new HashMap<>();
+        for (Service service : plan.getServiceList()) {
+            partByServiceName.putIfAbsent(service.getName(), partByRoot.get(find(parent, service)));
+        }
+
+        // Slots that already carry a service stay with its part, together with the requests they serve
+        for (Deployment deployment : plan.getDeployments()) {
+            if (deployment.getService() != null && partByRoot.containsKey(find(parent, deployment.getService()))) {
+                Part part = partByRoot.get(find(parent, deployment.getService()));
+                part.deployments.add(deployment);
+                if (deployment.getRequests() != null) {
+                    part.requests.addAll(deployment.getRequests());
+                }
+            }
+        }
+        List<Request> orphans = new ArrayList<>();
+        for (Request request : plan.getRequests()) {
+            if (request.getDeployment() != null && request.getDeployment().getService() != null) {
+                continue;
+            }
+            Part part = partByServiceName.get(request.getServiceName());
+            if (part == null) {
+                orphans.add(request);
+            } else {
+                part.requests.add(request);
+            }
+        }
+
+        List<Part> parts = new ArrayList<>();
+        for (Part part : partByRoot.values()) {
+            if (!part.requests.isEmpty() || !part.deployments.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        if (!orphans.isEmpty() && !parts.isEmpty()) {
+            parts.stream().max(Comparator.comparingLong(Part::queries)).get().requests.addAll(orphans);
+        }
+        return parts;
+    }
+
+    private static Service find(Map<Service, Service> parent, Service service) {
+        Service root = service;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        // Path compression
+        while (parent.get(service) != root) {
+            Service next = parent.get(service);
+            parent.put(service, root);
+            service = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<Service, Service> parent, Service a, Service b) {
+        Service rootA = find(parent, a);
+        Service rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(rootB, rootA);
+        }
+    }
+
+    /**
+     * Seeds every part with the servers its deployments already use, parts sharing one of them are merged.
+     */
+    private static void mergeSharedServers(List<Part> parts) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            Map<Server, Part> owners = new IdentityHashMap<>();
+            search:
+            for (Part part : parts) {
+                for (Deployment deployment : part.deployments) {
+                    if (deployment.getServer() == null) {
+                        continue;
+                    }
+                    Part owner = owners.putIfAbsent(deployment.getServer(), part);
+                    if (owner != null && owner != part) {
+                        owner.absorb(part);
+                        parts.remove(part);
+                        merged = true;
+                        break search;
+                    }
+                }
+            }
+        }
+        for (Part part : parts) {
+            for (Deployment deployment : part.deployments) {
+                if (deployment.getServer() != null) {
+                    part.servers.add(deployment.getServer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Every part without a server first gets its closest free server that can host all its services, biggest parts
+     * choosing first. The remaining servers go one by one to the part that can host all its services on them with
+     * the best affinity per server it already has, or else to the part with the most services they can host.
+     * Parts still without a server join the biggest part that has one.
+     *
+     * @return false when no part got a server
+     */
+    private static boolean assignServers(DeploymentPlan plan, List<Part> parts) {
+        RegionLatencyMatrix latencyMatrix = plan.getLatencyMatrix();
+        Set<Server> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Part part : parts) {
+            taken.addAll(part.servers);
+        }
+        List<Server> free = new ArrayList<>();
+        for (Server server : plan.getServerList()) {
+            if (!taken.contains(server)) {
+                free.add(server);
+            }
+        }
+        parts.sort(Comparator.comparingLong(Part::queries).reversed());
+        for (Part part : parts) {
+            if (!part.servers.isEmpty()) {
+                continue;
+            }
+            Server best = null;
+            double bestAffinity = -1;
+            for (Server server : free) {
+                if (!part.canHost(server)) {
+                    continue;
+                }
+                double affinity = part.affinity(server, latencyMatrix);
+                if (affinity > bestAffinity) {
+                    best = server;
+                    bestAffinity = affinity;
+                }
+            }
+            if (best != null) {
+                free.remove(best);
+                part.servers.add(best);
+            }
+        }
+        for (Server server : free) {
+            Part best = null;
+            double bestAffinity = -1;
+            for (Part part : parts) {
+                if (!part.canHost(server)) {
+                    continue;
+                }
+                double affinity = part.affinity(server, latencyMatrix) / Math.max(1, part.servers.size());
+                if (affinity > bestAffinity) {
+                    best = part;
+                    bestAffinity = affinity;
+                }
+            }
+            if (best == null) {
+                int mostHosted = 0;
+                for (Part part : parts) {
+                    int hosted = part.hostedServiceCount(server);
+                    if (hosted > mostHosted) {
+                        best = part;
+                        mostHosted = hosted;
+                    }
+                }
+            }
+            // A server that can't host any service is of no use to any part
+            if (best != null) {
+                best.servers.add(server);
+            }
+        }
+
+        Part biggestWithServers = null;
+        for (Part part : parts) {
+            if (!part.servers.isEmpty()) {
+                biggestWithServers = part;
+                break;
+            }
+        }
+        if (biggestWithServers == null) {
+            return false;
+        }
+        for (Iterator<Part> it = parts.iterator(); it.hasNext(); ) {
+            Part part = it.next();
+            if (part.servers.isEmpty()) {
+                biggestWithServers.absorb(part);
+                it.remove();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Free slots are shared by request count, every part gets at least one slot per service it holds while slots last.
+     */
+    private static void assignDeployments(DeploymentPlan plan, List<Part> parts) {
+        Deque<Deployment> free = new ArrayDeque<>();
+        for (Deployment deployment : plan.getDeployments()) {
+            if (deployment.getService() == null) {
+                free.add(deployment);
+            }
+        }
+        long totalRequests = 0;
+        for (Part part : parts) {
+            totalRequests += part.requests.size();
+        }
+        int freeCount = free.size();
+        for (Part part : parts) {
+            long share = totalRequests == 0 ? freeCount / parts.size() : freeCount * part.requests.size() / totalRequests;
+            long target = Math.max(share, part.services.size()) - part.deployments.size();
+            for (long i = 0; i < target && !free.isEmpty(); i++) {
+                part.deployments.add(free.removeFirst());
+            }
+        }
+        // Rounding leftovers go round robin
+        for (int i = 0; !free.isEmpty(); i++) {
+            parts.get(i % parts.size()).deployments.add(free.removeFirst());
+        }
+    }
+
+    private static class Part {
+        final List<Service> services = new ArrayList<>();
+        final List<Request> requests = new ArrayList<>();
+        final List<Deployment> deployments = new ArrayList<>();
+        final Set<Server> servers = Collections.newSetFromMap(new LinkedHashMap<>());
+
+        long queries() {
+            long total = 0;
+            for (Request request : requests) {
+                total += request.getEstimatedQueryCount();
+            }
+            return total;
+        }
+
+        void absorb(Part other) {
+            services.addAll(other.services);
+            requests.addAll(other.requests);
+            deployments.addAll(other.deployments);
+            servers.addAll(other.servers);
+        }
+
+        int hostedServiceCount(Server server) {
+            int hosted = 0;
+            for (Service service : services) {
+                if (server.canHost(service)) {
+                    hosted++;
+                }
+            }
+            return hosted;
+        }
+
+        boolean canHost(Server server) {
+            return hostedServiceCount(server) == services.size();
+        }
+
+        /**
+         * Queries of this part weighted by how close their source region is to the server,
+         * zero when the server can't host every service of the part.
+         */
+        double affinity(Server server, RegionLatencyMatrix latencyMatrix) {
+            if (!canHost(server)) {
+                return 0;
+            }
+            double affinity = 0;
+            for (Request request : requests) {
+                int latency = latencyMatrix.latencyMs(request.getSourceRegion(), server.getRegion());
+                affinity += request.getEstimatedQueryCount() / (1.0 + Math.min(latency, 1_000_000));
+            }
+            return affinity;
+        }
+
+        DeploymentPlan toSubPlan(DeploymentPlan plan) {
+            Map<Request, Request> requestCopies = new IdentityHashMap<>();
+            List<Request> requestList = new ArrayList<>(requests.size());
+            for (Request request : requests) {
+                Request copy = new Request(request.getId(), request.getServiceName(), request.getDate(),
+                        request.getEstimatedQueryCount(), request.getMaxLatencySLA(), request.getSourceRegion());
+                requestCopies.put(request, copy);
+                requestList.add(copy);
+            }
+            List<Deployment> deploymentList = new ArrayList<>(deployments.size());
+            for (Deployment deployment : deployments) {
+                Deployment copy = new Deployment();
+                copy.setId(deployment.getId());
+                copy.setService(deployment.getService());
+                copy.setServer(deployment.getServer());
+                copy.setDayFrom(deployment.getDayFrom());
+                copy.setDayTo(deployment.getDayTo());
+                List<Request> assigned = new ArrayList<>(deployment.getRequestCount());
+                for (int i = 0; i < deployment.getRequestCount(); i++) {
+                    Request request = requestCopies.get(deployment.getRequests().get(i));
+                    if (request != null) {
+                        request.setDeployment(copy);
+                        request.setPosition(assigned.size());
+                        assigned.add(request);
+                    }
+                }
+                copy.setRequests(assigned);
+                deploymentList.add(copy);
+            }
+            return plan.subPlan(new ArrayList<>(servers), new ArrayList<>(services), requestList, deploymentList);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.domain.valuerange.CountableValueRange;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.api.solver.phase.PhaseCommand;
+import lv.lu.eztf.dn.network_optimizer.NetworkOptimizationConstraintProvider;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Greedy initial placement, used as a custom phase instead of trying every service x server x date x date combination.
+ * Unassigned requests are grouped by service name and source region, biggest groups first. Each request is put on
+ * the server its service (and every dependency) already runs on that day, or otherwise on the lowest latency,
+ * then cheapest server with room for the whole dependency closure. Cheapest by what a one-day deployment costs
+ * there, allocation and deallocation included, like the constraint prices it. Deployment windows grow a day at a time,
+ * so a service never runs on two servers at once.
+ * <p>
+ * A request is left unassigned when it would push its service or a dependency over {@link Service#maxRequests()}
+ * that day, or when no server or free deployment slot is left. The construction heuristics configured after
+ * this phase pick those up.
+ */
+public class GreedyPlacementPhaseCommand implements PhaseCommand<DeploymentPlan> {
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<DeploymentPlan> scoreDirector, BooleanSupplier isPhaseTerminated) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        CountableValueRange<Integer> dayRange = plan.getDayRange();
+        if (dayRange.getSize() == 0 || plan.getServerList().isEmpty()) {
+            return;
+        }
+        new Placement(scoreDirector, plan, dayRange.get(0), (int) dayRange.getSize()).run(isPhaseTerminated);
+    }
+
+    private static class Placement {
+
+        private final ScoreDirector<DeploymentPlan> scoreDirector;
+        private final DeploymentPlan plan;
+        private final RegionLatencyMatrix latencyMatrix;
+        private final int firstDay;
+        private final int dayCount;
+
+        private final Deque<Deployment> freeDeployments = new ArrayDeque<>();
+        private final Map<Service, List<Deployment>> deploymentsByService = new IdentityHashMap<>();
+        // Per service and day: the server it runs on and the queries routed through it, directly or as a dependency
+        private final Map<Service, Server[]> hostByDay = new IdentityHashMap<>();
+        private final Map<Service, long[]> demandByDay = new IdentityHashMap<>();
+        // Per server and day: used cpu, ram and storage
+        private final Map<Server, float[][]> serverLoad = new IdentityHashMap<>();
+        // Per source region: every server, lowest latency first, then cheapest
+        private final Map<Region, List<Server>> serversByRegion = new IdentityHashMap<>();
+
+        Placement(ScoreDirector<DeploymentPlan> scoreDirector, DeploymentPlan plan, int firstDay, int dayCount) {
+            this.scoreDirector = scoreDirector;
+            this.plan = plan;
+            this.latencyMatrix = plan.getLatencyMatrix();
+            this.firstDay = firstDay;
+            this.dayCount = dayCount;
+        }
+
+        void run(BooleanSupplier isPhaseTerminated) {
+            for (Deployment deployment : plan.getDeployments()) {
+                if (deployment.getService() == null && deployment.getRequests() != null && deployment.getRequests().isEmpty()) {
+                    freeDeployments.add(deployment);
+                } else if (deployment.isActive() && deployment.hasValidDates()) {
+                    registerExisting(deployment);
+                }
+            }
+
+            Map<String, Service> servicesByName = new HashMap<>();
+            for (Service service : plan.getServiceList()) {
+                servicesByName.putIfAbsent(service.getName(), service);
+            }
+            Map<String, List<Request>> groups = new LinkedHashMap<>();
+            for (Request request : plan.getRequests()) {
+                if (request.getDeployment() == null && inDayRange(request.getDay())
+                        && servicesByName.containsKey(request.getServiceName())) {
+                    String region = request.getSourceRegion() == null ? null : request.getSourceRegion().getName();
+                    groups.computeIfAbsent(request.getServiceName() + "@" + region, key -> new ArrayList<>()).add(request);
+                    serversByRegion.computeIfAbsent(request.getSourceRegion(), this::serversByPreference);
+                }
+            }
+            // Biggest groups first, they are the hardest to fit
+            List<List<Request>> orderedGroups = new ArrayList<>(groups.values());
+            orderedGroups.sort(Comparator.comparingLong(Placement::totalQueries).reversed());
+            List<Request> overflow = new ArrayList<>();
+
+            for (List<Request> group : orderedGroups) {
+                Service service = servicesByName.get(group.get(0).getServiceName());
+                List<Service> closure = closureOf(service);
+                List<Request> sorted = new ArrayList<>(group);
+                sorted.sort(Comparator.comparingInt(Request::getEstimatedQueryCount).reversed());
+                for (Request request : sorted) {
+                    if (isPhaseTerminated.getAsBoolean()) {
+                        return;
+                    }
+                    if (!place(request, closure)) {
+                        overflow.add(request);
+                    }
+                }
+            }
+            // Slots nobody needed stay unused, but get a window so the construction heuristics skip them
+            for (Deployment deployment : freeDeployments) {
+                if (deployment.getDayFrom() == null || deployment.getDayTo() == null) {
+                    assign(deployment, null, null, firstDay, firstDay);
+                }
+            }
+            scoreDirector.triggerVariableListeners();
+        }
+
+        private void registerExisting(Deployment deployment) {
+            deploymentsByService.computeIfAbsent(deployment.getService(), s -> new ArrayList<>()).add(deployment);
+            Server[] hosts = hosts(deployment.getService());
+            for (int day = Math.max(deployment.getDayFrom(), firstDay); day <= deployment.getDayTo() && inDayRange(day); day++) {
+                hosts[day - firstDay] = deployment.getServer();
+                occupy(deployment.getServer(), deployment.getService(), day - firstDay);
+            }
+            for (int i = 0; i < deployment.getRequestCount(); i++) {
+                Request request = deployment.getRequests().get(i);
+                if (inDayRange(request.getDay())) {
+                    for (Service service : deployment.getService().totalContainedServices()) {
+                        demand(service)[request.getDay() - firstDay] += request.getEstimatedQueryCount();
+                    }
+                }
+            }
+        }
+
+        private boolean place(Request request, List<Service> closure) {
+            int day = request.getDay() - firstDay;
+            int queries = request.getEstimatedQueryCount();
+            Server forced = null;
+            for (Service service : closure) {
+                if (demand(service)[day] + queries > service.maxRequests()) {
+                    return false;
+                }
+                Server host = hosts(service)[day];
+                if (host != null) {
+                    if (forced != null && forced != host) {
+                        // Dependencies already run apart that day, co-location can't be had
+                        return false;
+                    }
+                    forced = host;
+                }
+            }
+            Server server = forced != null
+                    ? (fits(forced, closure, request.getDay()) ? forced : null)
+                    : pickServer(closure, request.getSourceRegion(), request.getDay());
+            if (server == null) {
+                return false;
+            }
+
+            for (Service service : closure) {
+                if (hosts(service)[day] == null) {
+                    extendOrCreate(service, server, request.getDay());
+                    hosts(service)[day] = server;
+                    occupy(server, service, day);
+                }
+                demand(service)[day] += queries;
+            }
+            assignRequest(deploymentCovering(closure.get(0), server, request.getDay()), request);
+            return true;
+        }
+
+        private void assignRequest(Deployment deployment, Request request) {
+            int index = deployment.getRequests().size();
+            scoreDirector.beforeListVariableElementAssigned(deployment, "requests", request);
+            scoreDirector.beforeListVariableChanged(deployment, "requests", index, index);
+            deployment.getRequests().add(request);
+            scoreDirector.afterListVariableChanged(deployment, "requests", index, index + 1);
+            scoreDirector.afterListVariableElementAssigned(deployment, "requests", request);
+            scoreDirector.triggerVariableListeners();
+        }
+
+        private Server pickServer(List<Service> closure, Region region, int day) {
+            for (Server server : serversByRegion.get(region)) {
+                if (fits(server, closure, day)) {
+                    return server;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Lowest latency region first, then the cheapest server.
+         */
+        private List<Server> serversByPreference(Region region) {
+            List<Server> servers = new ArrayList<>(plan.getServerList());
+            servers.sort(Comparator
+                    .comparingInt((Server server) -> latencyMatrix.latencyMs(region, server.getRegion()))
+                    .thenComparingLong(server -> server.getCost() == null ? 0L
+                            : NetworkOptimizationConstraintProvider.computeServerIntervalCost(server, 0, 0)));
+            return servers;
+        }
+
+        /**
+         * Whether the services of the closure that don't run yet that day fit on the server,
+         * with enough free deployment slots for those that can't just extend a neighbouring window.
+         */
+        private boolean fits(Server server, List<Service> closure, int day) {
+            float cpu = 0f;
+            float ram = 0f;
+            float storage = 0f;
+            int newDeployments = 0;
+            for (Service service : closure) {
+                if (!server.canHost(service)) {
+                    return false;
+                }
+                if (hosts(service)[day - firstDay] != null) {
+                    continue;
+                }
+                cpu += service.getCpuPerInstance();
+                ram += service.getRamPerInstance();
+                storage += service.getStoragePerInstance();
+                if (adjacentDeployment(service, server, day) == null) {
+                    newDeployments++;
+                }
+            }
+            if (newDeployments > freeDeployments.size()) {
+                return false;
+            }
+            float[][] load = serverLoad.get(server);
+            int d = day - firstDay;
+            float usedCpu = load == null ? 0f : load[0][d];
+            float usedRam = load == null ? 0f : load[1][d];
+            float usedStorage = load == null ? 0f : load[2][d];
+            return usedCpu + cpu <= server.getCpuCores()
+                    && usedRam + ram <= server.getRamGB()
+                    && usedStorage + storage <= server.getStorageGB();
+        }
+
+        private void extendOrCreate(Service service, Server server, int day) {
+            Deployment deployment = adjacentDeployment(service, server, day);
+            if (deployment != null) {
+                assign(deployment, service, server, Math.min(deployment.getDayFrom(), day), Math.max(deployment.getDayTo(), day));
+            } else {
+                deployment = freeDeployments.removeFirst();
+                assign(deployment, service, server, day, day);
+                deploymentsByService.computeIfAbsent(service, s -> new ArrayList<>()).add(deployment);
+            }
+        }
+
+        // A deployment of the service on the server whose window ends the day before or starts the day after
+        private Deployment adjacentDeployment(Service service, Server server, int day) {
+            for (Deployment deployment : deploymentsByService.getOrDefault(service, List.of())) {
+                if (deployment.getServer() == server
+                        && (deployment.getDayTo() == day - 1 || deployment.getDayFrom() == day + 1)) {
+                    return deployment;
+                }
+            }
+            return null;
+        }
+
+        private Deployment deploymentCovering(Service service, Server server, int day) {
+            for (Deployment deployment : deploymentsByService.getOrDefault(service, List.of())) {
+                if (deployment.getServer() == server && deployment.getDayFrom() <= day && day <= deployment.getDayTo()) {
+                    return deployment;
+                }
+            }
+            throw new IllegalStateException("Service (" + service.getName() + ") has no deployment on server ("
+                    + server.getName() + ") covering day (" + day + ").");
+        }
+
+        private void assign(Deployment deployment, Service service, Server server, int dayFrom, int dayTo) {
+            if (deployment.getService() != service) {
+                scoreDirector.beforeVariableChanged(deployment, "service");
+                deployment.setService(service);
+                scoreDirector.afterVariableChanged(deployment, "service");
+            }
+            if (deployment.getServer() != server) {
+                scoreDirector.beforeVariableChanged(deployment, "server");
+                deployment.setServer(server);
+                scoreDirector.afterVariableChanged(deployment, "server");
+            }
+            if (!Objects.equals(deployment.getDayFrom(), dayFrom)) {
+                scoreDirector.beforeVariableChanged(deployment, "dayFrom");
+                deployment.setDayFrom(dayFrom);
+                scoreDirector.afterVariableChanged(deployment, "dayFrom");
+            }
+            if (!Objects.equals(deployment.getDayTo(), dayTo)) {
+                scoreDirector.beforeVariableChanged(deployment, "dayTo");
+                deployment.setDayTo(dayTo);
+                scoreDirector.afterVariableChanged(deployment, "dayTo");
+            }
+        }
+
+        private void occupy(Server server, Service service, int day) {
+            float[][] load = serverLoad.computeIfAbsent(server, s -> new float[3][dayCount]);
+            load[0][day] += service.getCpuPerInstance();
+            load[1][day] += service.getRamPerInstance();
+            load[2][day] += service.getStoragePerInstance();
+        }
+
+        private Server[] hosts(Service service) {
+            return hostByDay.computeIfAbsent(service, s -> new Server[dayCount]);
+        }
+
+        private long[] demand(Service service) {
+            return demandByDay.computeIfAbsent(service, s -> new long[dayCount]);
+        }
+
+        private boolean inDayRange(int day) {
+            return day >= firstDay && day < firstDay + dayCount;
+        }
+
+        // The service itself first, then its (transitive) dependencies
+        private static List<Service> closureOf(Service service) {
+            List<Service> closure = new ArrayList<>();
+            closure.add(service);
+            for (Service dependency : service.totalContainedServices()) {
+                if (dependency != service) {
+                    closure.add(dependency);
+                }
+            }
+            return closure;
+        }
+
+        private static long totalQueries(List<Request> requests) {
+            long total = 0;
+            for (Request request : requests) {
+                total += request.getEstimatedQueryCount();
+            }
+            return total;
+        }
+    }
+}
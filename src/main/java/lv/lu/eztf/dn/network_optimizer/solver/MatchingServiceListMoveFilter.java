@@ -0,0 +1,29 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.list.ListChangeMove;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.list.ListSwapMove;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+
+/**
+ * Only lets requests move into deployments whose service name matches the request,
+ * the moves requestServiceMustMatchDeploymentService would reject anyway are never evaluated.
+ */
+public class MatchingServiceListMoveFilter implements SelectionFilter<DeploymentPlan, Move<DeploymentPlan>> {
+
+    @Override
+    public boolean accept(ScoreDirector<DeploymentPlan> scoreDirector, Move<DeploymentPlan> move) {
+        if (move instanceof ListChangeMove<DeploymentPlan> change) {
+            return ((Deployment) change.getDestinationEntity()).canServe((Request) change.getMovedValue());
+        }
+        if (move instanceof ListSwapMove<DeploymentPlan> swap) {
+            return ((Deployment) swap.getRightEntity()).canServe((Request) swap.getLeftValue())
+                    && ((Deployment) swap.getLeftEntity()).canServe((Request) swap.getRightValue());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,227 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.domain.solution.descriptor.SolutionDescriptor;
+import ai.timefold.solver.core.impl.domain.variable.descriptor.GenuineVariableDescriptor;
+import ai.timefold.solver.core.impl.domain.variable.descriptor.ListVariableDescriptor;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.ChangeMove;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.list.ListChangeMove;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Random request and server moves biased towards low latency destinations:
+ * a request is moved to a matching deployment close to its source region,
+ * and a deployment is moved to a server close to the one it is on.
+ * Nearer destinations are picked more often (linear distribution, like Timefold's nearby selection),
+ * but every compatible destination stays reachable.
+ * <p>
+ * The built-in nearbySelection config is an enterprise feature, so the distance meters are applied here instead.
+ * Servers are sorted by latency once per phase, from every server and from every request source region.
+ * The iterator is created once per step, it groups the placed deployments by server and builds the nearest-first
+ * destinations of a service and region the first time a request of them is drawn, so a move itself sorts nothing.
+ * In original order the same destinations are offered exhaustively, nearest first.
+ */
+public class NearbyLatencyMoveIteratorFactory implements MoveIteratorFactory<DeploymentPlan, Move<DeploymentPlan>> {
+
+    // Gives up on an origin without compatible destinations after this many tries per move
+    private static final int MAX_ATTEMPTS = 10;
+
+    // Working solution state, refreshed every phase
+    private ListVariableDescriptor<DeploymentPlan> requestsVariable;
+    private GenuineVariableDescriptor<DeploymentPlan> serverVariable;
+    private RegionLatencyMatrix latencyMatrix;
+    private List<Server> servers;
+    // Servers sorted by latency from the server they are keyed by, nearest first
+    private Map<Server, List<Server>> nearbyServers;
+    // Servers sorted by latency from the request source region they are keyed by, nearest first
+    private Map<Region, List<Server>> nearbyServersByRegion;
+
+    @Override
+    public void phaseStarted(ScoreDirector<DeploymentPlan> scoreDirector) {
+        SolutionDescriptor<DeploymentPlan> solutionDescriptor =
+                ((InnerScoreDirector<DeploymentPlan, ?>) scoreDirector).getSolutionDescriptor();
+        requestsVariable = solutionDescriptor.getListVariableDescriptor();
+        serverVariable = solutionDescriptor.findEntityDescriptorOrFail(Deployment.class)
+                .getGenuineVariableDescriptor("server");
+
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        latencyMatrix = plan.getLatencyMatrix();
+        servers = plan.getServerList();
+        ServerLatencyDistanceMeter serverMeter = new ServerLatencyDistanceMeter(latencyMatrix);
+        nearbyServers = new IdentityHashMap<>();
+        for (Server origin : plan.getServerList()) {
+            List<Server> destinations = new ArrayList<>(plan.getServerList());
+            destinations.remove(origin);
+            destinations.sort(Comparator.comparingDouble(destination -> serverMeter.getNearbyDistance(origin, destination)));
+            nearbyServers.put(origin, destinations);
+        }
+        nearbyServersByRegion = new IdentityHashMap<>();
+        if (plan.getRegions() != null) {
+            plan.getRegions().forEach(this::nearbyServers);
+        }
+    }
+
+    private List<Server> nearbyServers(Region sourceRegion) {
+        return nearbyServersByRegion.computeIfAbsent(sourceRegion, region -> {
+            List<Server> destinations = new ArrayList<>(servers);
+            destinations.sort(Comparator.comparingInt(destination -> latencyMatrix.latencyMs(region, destination.getRegion())));
+            return destinations;
+        });
+    }
+
+    @Override
+    public void phaseEnded(ScoreDirector<DeploymentPlan> scoreDirector) {
+        requestsVariable = null;
+        serverVariable = null;
+        latencyMatrix = null;
+        servers = null;
+        nearbyServers = null;
+        nearbyServersByRegion = null;
+    }
+
+    @Override
+    public long getSize(ScoreDirector<DeploymentPlan> scoreDirector) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        long deployments = plan.getDeployments().size();
+        return plan.getRequests().size() * deployments + deployments * plan.getServerList().size();
+    }
+
+    /**
+     * Every request move, requests in list order and destinations nearest first, then every server move,
+     * deployments in list order and servers nearest first. Built lazily, a step that picks early never
+     * generates the rest.
+     */
+    @Override
+    public Iterator<Move<DeploymentPlan>> createOriginalMoveIterator(ScoreDirector<DeploymentPlan> scoreDirector) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        Map<Server, List<Deployment>> deploymentsByServer = deploymentsByServer(plan);
+        Map<Region, Map<String, List<Deployment>>> nearbyDeployments = new IdentityHashMap<>();
+        Stream<Move<DeploymentPlan>> requestMoves = plan.getRequests().stream()
+                .filter(request -> request.getDeployment() != null)
+                .flatMap(request -> nearbyDeployments(request, deploymentsByServer, nearbyDeployments).stream()
+                        .filter(destination -> destination != request.getDeployment())
+                        .map(destination -> new ListChangeMove<>(requestsVariable, request.getDeployment(),
+                                request.getPosition(), destination, destination.getRequests().size())));
+        Stream<Move<DeploymentPlan>> serverMoves = plan.getDeployments().stream()
+                .filter(deployment -> deployment.getServer() != null && deployment.getService() != null)
+                .flatMap(deployment -> nearbyServers.getOrDefault(deployment.getServer(), List.of()).stream()
+                        .filter(server -> server.canHost(deployment.getService()))
+                        .map(server -> new ChangeMove<>(serverVariable, deployment, server)));
+        return Stream.concat(requestMoves, serverMoves).iterator();
+    }
+
+    @Override
+    public Iterator<Move<DeploymentPlan>> createRandomMoveIterator(ScoreDirector<DeploymentPlan> scoreDirector, Random random) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        Map<Server, List<Deployment>> deploymentsByServer = deploymentsByServer(plan);
+        Map<Region, Map<String, List<Deployment>>> nearbyDeployments = new IdentityHashMap<>();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !plan.getDeployments().isEmpty();
+            }
+
+            @Override
+            public Move<DeploymentPlan> next() {
+                if (!plan.getRequests().isEmpty() && random.nextBoolean()) {
+                    return nextRequestMove(plan, deploymentsByServer, nearbyDeployments, random);
+                }
+                return nextServerMove(plan, random);
+            }
+        };
+    }
+
+    private static Map<Server, List<Deployment>> deploymentsByServer(DeploymentPlan plan) {
+        // Every move of a step starts from the same solution, so the grouping holds for the whole step
+        Map<Server, List<Deployment>> deploymentsByServer = new IdentityHashMap<>();
+        for (Deployment deployment : plan.getDeployments()) {
+            if (deployment.getServer() != null) {
+                deploymentsByServer.computeIfAbsent(deployment.getServer(), server -> new ArrayList<>()).add(deployment);
+            }
+        }
+        return deploymentsByServer;
+    }
+
+    /**
+     * Placed deployments serving the request's service, nearest to its source region first,
+     * built once per source region and service name in a step.
+     */
+    private List<Deployment> nearbyDeployments(Request request, Map<Server, List<Deployment>> deploymentsByServer,
+                                               Map<Region, Map<String, List<Deployment>>> nearbyDeployments) {
+        return nearbyDeployments
+                .computeIfAbsent(request.getSourceRegion(), region -> new HashMap<>())
+                .computeIfAbsent(request.getServiceName(), serviceName -> {
+                    List<Deployment> deployments = new ArrayList<>();
+                    for (Server server : nearbyServers(request.getSourceRegion())) {
+                        for (Deployment deployment : deploymentsByServer.getOrDefault(server, List.of())) {
+                            if (deployment.canServe(request)) {
+                                deployments.add(deployment);
+                            }
+                        }
+                    }
+                    return deployments;
+                });
+    }
+
+    private Move<DeploymentPlan> nextRequestMove(DeploymentPlan plan, Map<Server, List<Deployment>> deploymentsByServer,
+                                                 Map<Region, Map<String, List<Deployment>>> nearbyDeployments,
+                                                 Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Request request = plan.getRequests().get(random.nextInt(plan.getRequests().size()));
+            Deployment source = request.getDeployment();
+            if (source == null) {
+                continue;
+            }
+            List<Deployment> candidates = nearbyDeployments(request, deploymentsByServer, nearbyDeployments);
+            // The source itself is skipped by drawing from the others
+            int sourceIndex = candidates.indexOf(source);
+            int size = sourceIndex < 0 ? candidates.size() : candidates.size() - 1;
+            if (size == 0) {
+                continue;
+            }
+            int index = nearbyIndex(size, random);
+            if (sourceIndex >= 0 && index >= sourceIndex) {
+                index++;
+            }
+            Deployment destination = candidates.get(index);
+            return new ListChangeMove<>(requestsVariable, source, request.getPosition(),
+                    destination, destination.getRequests().size());
+        }
+        return nextServerMove(plan, random);
+    }
+
+    private Move<DeploymentPlan> nextServerMove(DeploymentPlan plan, Random random) {
+        Deployment deployment = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            deployment = plan.getDeployments().get(random.nextInt(plan.getDeployments().size()));
+            if (deployment.getServer() == null || deployment.getService() == null) {
+                continue;
+            }
+            List<Server> candidates = new ArrayList<>();
+            for (Server server : nearbyServers.getOrDefault(deployment.getServer(), List.of())) {
+                if (server.canHost(deployment.getService())) {
+                    candidates.add(server);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return new ChangeMove<>(serverVariable, deployment, candidates.get(nearbyIndex(candidates.size(), random)));
+            }
+        }
+        // Nothing nearby fits, the move to the current server is not doable and gets skipped
+        return new ChangeMove<>(serverVariable, deployment, deployment.getServer());
+    }
+
+    /**
+     * Index into a nearest-first list, the probability decreases linearly with the distance rank.
+     */
+    static int nearbyIndex(int size, Random random) {
+        int index = (int) (size * (1.0 - Math.sqrt(1.0 - random.nextDouble())));
+        return Math.min(index, size - 1);
+    }
+}
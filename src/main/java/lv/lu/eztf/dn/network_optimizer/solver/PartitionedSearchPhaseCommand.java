@@ -0,0 +1,199 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.phase.PhaseCommand;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+import lv.lu.eztf.dn.network_optimizer.domain.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Splits the working plan with {@link DeploymentPlanPartitioner}, solves every part on its own thread
+ * with the solver configured in {@link #setPartitionSolverConfigResource(String) partitionSolverConfigResource}
+ * (with the phases of solverConfig.xml when it configures none, see {@link DefaultPhases}) and merges the best solutions of the parts back. Phases configured after this one (usually a global
+ * local search) repair whatever the split got wrong.
+ * <p>
+ * Stands in for the built-in partitioned search phase, which isn't part of the community edition.
+ * Part solvers are terminated early as soon as this phase is terminated.
+ */
+public class PartitionedSearchPhaseCommand implements PhaseCommand<DeploymentPlan> {
+
+    // How often the part solvers are checked for phase termination
+    private static final long POLL_MILLIS = 100;
+
+    private String partitionSolverConfigResource = "solverConfigPartition.xml";
+    private int partitionThreadCount = Runtime.getRuntime().availableProcessors();
+
+    public void setPartitionSolverConfigResource(String partitionSolverConfigResource) {
+        this.partitionSolverConfigResource = partitionSolverConfigResource;
+    }
+
+    public void setPartitionThreadCount(int partitionThreadCount) {
+        this.partitionThreadCount = partitionThreadCount;
+    }
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<DeploymentPlan> scoreDirector, BooleanSupplier isPhaseTerminated) {
+        List<DeploymentPlan> parts = new DeploymentPlanPartitioner().split(scoreDirector.getWorkingSolution());
+        if (parts.size() <= 1) {
+            // Nothing to gain, the phases after this one solve the whole plan anyway
+            return;
+        }
+        merge(scoreDirector, solveParts(parts, isPhaseTerminated));
+    }
+
+    private List<DeploymentPlan> solveParts(List<DeploymentPlan> parts, BooleanSupplier isPhaseTerminated) {
+        SolverFactory<DeploymentPlan> solverFactory = SolverFactory.create(
+                DefaultPhases.inherit(SolverConfig.createFromXmlResource(partitionSolverConfigResource)));
+        List<Solver<DeploymentPlan>> solvers = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            solvers.add(solverFactory.buildSolver());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(partitionThreadCount, parts.size())));
+        try {
+            List<Future<DeploymentPlan>> futures = new ArrayList<>(parts.size());
+            for (int i = 0; i < parts.size(); i++) {
+                Solver<DeploymentPlan> solver = solvers.get(i);
+                DeploymentPlan part = parts.get(i);
+                futures.add(executor.submit(() -> solver.solve(part)));
+            }
+            List<DeploymentPlan> solved = new ArrayList<>(parts.size());
+            for (Future<DeploymentPlan> future : futures) {
+                solved.add(await(future, solvers, isPhaseTerminated));
+            }
+            return solved;
+        } finally {
+            for (Solver<DeploymentPlan> solver : solvers) {
+                solver.terminateEarly();
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private static DeploymentPlan await(Future<DeploymentPlan> future, List<Solver<DeploymentPlan>> solvers,
+                                        BooleanSupplier isPhaseTerminated) {
+        boolean terminated = false;
+        while (true) {
+            try {
+                return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!terminated && isPhaseTerminated.getAsBoolean()) {
+                    // Part solvers still return their best solution so far
+                    for (Solver<DeploymentPlan> solver : solvers) {
+                        solver.terminateEarly();
+                    }
+                    terminated = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while solving the partitions.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Solving a partition failed.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Copies the solved parts onto the working plan, matched by id. All touched request lists are emptied
+     * before any is refilled, so a request never sits in two lists at once.
+     */
+    private static void merge(ScoreDirector<DeploymentPlan> scoreDirector, List<DeploymentPlan> solvedParts) {
+        DeploymentPlan plan = scoreDirector.getWorkingSolution();
+        Map<Integer, Deployment> deploymentsById = new HashMap<>();
+        for (Deployment deployment : plan.getDeployments()) {
+            deploymentsById.put(deployment.getId(), deployment);
+        }
+        Map<Integer, Request> requestsById = new HashMap<>();
+        for (Request request : plan.getRequests()) {
+            requestsById.put(request.getId(), request);
+        }
+
+        for (DeploymentPlan part : solvedParts) {
+            for (Deployment solved : part.getDeployments()) {
+                clearRequests(scoreDirector, deploymentsById.get(solved.getId()));
+            }
+        }
+        for (DeploymentPlan part : solvedParts) {
+            for (Deployment solved : part.getDeployments()) {
+                Deployment deployment = deploymentsById.get(solved.getId());
+                // Facts are shared with the parts, only entities were copied
+                changeVariables(scoreDirector, deployment, solved.getService(), solved.getServer(),
+                        solved.getDayFrom(), solved.getDayTo());
+                List<Request> requests = new ArrayList<>(solved.getRequestCount());
+                for (int i = 0; i < solved.getRequestCount(); i++) {
+                    requests.add(requestsById.get(solved.getRequests().get(i).getId()));
+                }
+                assignRequests(scoreDirector, deployment, requests);
+            }
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+
+    private static void clearRequests(ScoreDirector<DeploymentPlan> scoreDirector, Deployment deployment) {
+        List<Request> requests = deployment.getRequests();
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        List<Request> removed = new ArrayList<>(requests);
+        scoreDirector.beforeListVariableChanged(deployment, "requests", 0, removed.size());
+        for (Request request : removed) {
+            scoreDirector.beforeListVariableElementUnassigned(deployment, "requests", request);
+        }
+        requests.clear();
+        for (Request request : removed) {
+            scoreDirector.afterListVariableElementUnassigned(deployment, "requests", request);
+        }
+        scoreDirector.afterListVariableChanged(deployment, "requests", 0, 0);
+    }
+
+    private static void assignRequests(ScoreDirector<DeploymentPlan> scoreDirector, Deployment deployment,
+                                       List<Request> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        if (deployment.getRequests() == null) {
+            deployment.setRequests(new ArrayList<>());
+        }
+        for (Request request : added) {
+            scoreDirector.beforeListVariableElementAssigned(deployment, "requests", request);
+        }
+        scoreDirector.beforeListVariableChanged(deployment, "requests", 0, 0);
+        deployment.getRequests().addAll(added);
+        scoreDirector.afterListVariableChanged(deployment, "requests", 0, added.size());
+        for (Request request : added) {
+            scoreDirector.afterListVariableElementAssigned(deployment, "requests", request);
+        }
+    }
+
+    private static void changeVariables(ScoreDirector<DeploymentPlan> scoreDirector, Deployment deployment,
+                                        Service service, Server server, Integer dayFrom, Integer dayTo) {
+        if (deployment.getService() != service) {
+            scoreDirector.beforeVariableChanged(deployment, "service");
+            deployment.setService(service);
+            scoreDirector.afterVariableChanged(deployment, "service");
+        }
+        if (deployment.getServer() != server) {
+            scoreDirector.beforeVariableChanged(deployment, "server");
+            deployment.setServer(server);
+            scoreDirector.afterVariableChanged(deployment, "server");
+        }
+        if (!Objects.equals(deployment.getDayFrom(), dayFrom)) {
+            scoreDirector.beforeVariableChanged(deployment, "dayFrom");
+            deployment.setDayFrom(dayFrom);
+            scoreDirector.afterVariableChanged(deployment, "dayFrom");
+        }
+        if (!Objects.equals(deployment.getDayTo(), dayTo)) {
+            scoreDirector.beforeVariableChanged(deployment, "dayTo");
+            deployment.setDayTo(dayTo);
+            scoreDirector.afterVariableChanged(deployment, "dayTo");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+
+/**
+ * Takes a request out of a running job, and out of the deployment serving it. Every other assignment stays.
+ */
+public record RemoveRequestProblemChange(int requestId) implements ProblemChange<DeploymentPlan> {
+
+    @Override
+    public void doChange(DeploymentPlan workingSolution, ProblemChangeDirector problemChangeDirector) {
+        Request request = null;
+        for (Request candidate : workingSolution.getRequests()) {
+            if (candidate.getId() == requestId) {
+                request = candidate;
+                break;
+            }
+        }
+        if (request == null) {
+            return;
+        }
+        Deployment deployment = request.getDeployment();
+        if (deployment != null) {
+            // The change director has nothing for list variables (changeVariable only handles basic ones), so the
+            // deployment goes out and comes back in without the request, both notified, before the request goes
+            Request assigned = request;
+            problemChangeDirector.removeEntity(deployment, removed -> removed.getRequests().remove(assigned));
+            problemChangeDirector.addEntity(deployment, added -> { });
+        }
+        problemChangeDirector.removeEntity(request, workingSolution.getRequests()::remove);
+        problemChangeDirector.updateShadowVariables();
+    }
+}
@@ -0,0 +1,38 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import lv.lu.eztf.dn.network_optimizer.domain.Deployment;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+
+import java.util.ArrayList;
+
+/**
+ * Takes a server out of service in a running job. Deployments on it lose their server but keep their service,
+ * dates and requests, so the solver only has to find them a new home.
+ */
+public record RemoveServerProblemChange(int serverId) implements ProblemChange<DeploymentPlan> {
+
+    @Override
+    public void doChange(DeploymentPlan workingSolution, ProblemChangeDirector problemChangeDirector) {
+        Server server = null;
+        for (Server candidate : workingSolution.getServerList()) {
+            if (candidate.getId() == serverId) {
+                server = candidate;
+                break;
+            }
+        }
+        if (server == null) {
+            return;
+        }
+        for (Deployment deployment : workingSolution.getDeployments()) {
+            if (deployment.getServer() == server) {
+                problemChangeDirector.changeVariable(deployment, "server", d -> d.setServer(null));
+            }
+        }
+        // The server list is shared with the best solutions published before
+        workingSolution.setServerList(new ArrayList<>(workingSolution.getServerList()));
+        problemChangeDirector.removeProblemFact(server, workingSolution.getServerList()::remove);
+    }
+}
@@ -0,0 +1,22 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import lv.lu.eztf.dn.network_optimizer.domain.RegionLatencyMatrix;
+import lv.lu.eztf.dn.network_optimizer.domain.Server;
+
+/**
+ * Distance between two servers is the latency between their regions, servers in the same region are nearest.
+ */
+public class ServerLatencyDistanceMeter implements NearbyDistanceMeter<Server, Server> {
+
+    private final RegionLatencyMatrix latencyMatrix;
+
+    public ServerLatencyDistanceMeter(RegionLatencyMatrix latencyMatrix) {
+        this.latencyMatrix = latencyMatrix;
+    }
+
+    @Override
+    public double getNearbyDistance(Server origin, Server destination) {
+        return latencyMatrix.latencyMs(origin.getRegion(), destination.getRegion());
+    }
+}
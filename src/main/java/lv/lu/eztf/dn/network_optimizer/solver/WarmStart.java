@@ -0,0 +1,84 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.domain.valuerange.CountableValueRange;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+
+import java.util.*;
+
+/**
+ * Seeds a new problem with the assignments of an earlier solution of a mostly identical problem.
+ * Deployments, services, servers and requests are matched by id: a deployment of the problem takes over the
+ * service, server, dates and requests its namesake had in the earlier solution, as far as they still exist.
+ * Everything without a match stays as the problem has it, usually unassigned, so the greedy placement and
+ * construction heuristics only have to place the difference.
+ * <p>
+ * What the problem assigns itself wins: a deployment only takes over the variables it leaves unset, and the
+ * earlier requests are appended after its own. A request the problem already assigns anywhere isn't taken over.
+ * A request is only taken over when it still asks for the deployment's service, dates only when they lie
+ * within the new plan's days. The shadow variables are left to the solver.
+ */
+public final class WarmStart {
+
+    private WarmStart() {
+    }
+
+    /**
+     * @return how many deployments took over an earlier assignment
+     */
+    public static int apply(DeploymentPlan base, DeploymentPlan problem) {
+        Map<Integer, Deployment> baseDeployments = new HashMap<>();
+        for (Deployment deployment : base.getDeployments()) {
+            baseDeployments.put(deployment.getId(), deployment);
+        }
+        Map<Integer, Service> services = new HashMap<>();
+        for (Service service : problem.getServiceList()) {
+            services.put(service.getId(), service);
+        }
+        Map<Integer, Server> servers = new HashMap<>();
+        for (Server server : problem.getServerList()) {
+            servers.put(server.getId(), server);
+        }
+        Map<Integer, Request> requests = new HashMap<>();
+        for (Request request : problem.getRequests()) {
+            requests.put(request.getId(), request);
+        }
+        // Requests the problem already assigns stay where they are
+        Set<Request> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Deployment deployment : problem.getDeployments()) {
+            if (deployment.getRequests() != null) {
+                taken.addAll(deployment.getRequests());
+            }
+        }
+        CountableValueRange<Integer> dayRange = problem.getDayRange();
+
+        int matched = 0;
+        for (Deployment deployment : problem.getDeployments()) {
+            Deployment previous = baseDeployments.get(deployment.getId());
+            if (previous == null) {
+                continue;
+            }
+            matched++;
+            if (deployment.getService() == null && previous.getService() != null) {
+                deployment.setService(services.get(previous.getService().getId()));
+            }
+            if (deployment.getServer() == null && previous.getServer() != null) {
+                deployment.setServer(servers.get(previous.getServer().getId()));
+            }
+            if (deployment.getDayFrom() == null && deployment.getDayTo() == null && previous.hasValidDates()
+                    && dayRange.contains(previous.getDayFrom()) && dayRange.contains(previous.getDayTo())) {
+                deployment.setDayFrom(previous.getDayFrom());
+                deployment.setDayTo(previous.getDayTo());
+            }
+            List<Request> assigned = deployment.getRequests() == null
+                    ? new ArrayList<>() : new ArrayList<>(deployment.getRequests());
+            for (int i = 0; i < previous.getRequestCount(); i++) {
+                Request request = requests.get(previous.getRequests().get(i).getId());
+                if (request != null && deployment.canServe(request) && taken.add(request)) {
+                    assigned.add(request);
+                }
+            }
+            deployment.setRequests(assigned);
+        }
+        return matched;
+    }
+}
@@ -10,6 +10,110 @@ document.addEventListener("DOMContentLoaded", async () => {
     })
 
 
+    // Display Job ID and Status
+    document.getElementById("job_id").textContent = id;
+    renderStatus(job.solverStatus, job.score);
+    renderServers(job);
+
+    // Display Services
+    const servicesContainer = document.getElementById("services_container");
+    job.serviceList.forEach(service => {
+        const serviceCard = document.createElement("div");
+        serviceCard.className = "border border-gray-200 rounded-lg p-4 hover:shadow-md transition-shadow";
+        serviceCard.innerHTML = `
+            <h3 class="font-bold text-lg text-green-600 mb-2">${service.name}</h3>
+            <p class="text-sm text-gray-600"><span class="font-semibold">ID:</span> ${service.id}</p>
+            <p class="text-sm text-gray-600"><span class="font-semibold">CPU/Instance:</span> ${service.cpuPerInstance}</p>
+            <p class="text-sm text-gray-600"><span class="font-semibold">RAM/Instance:</span> ${service.ramPerInstance}</p>
+            <p class="text-sm text-gray-600"><span class="font-semibold">Storage/Instance:</span> ${service.storagePerInstance}</p>
+            <p class="text-sm text-gray-600"><span class="font-semibold">Max Requests:</span> ${service.maxRequestsPerInstance}</p>
+        `;
+        servicesContainer.appendChild(serviceCard);
+    });
+
+    // Display Requests
+    const requestsContainer = document.getElementById("requests_container");
+    job.requests.forEach(request => {
+        const requestCard = document.createElement("div");
+        requestCard.className = "border border-gray-200 rounded-lg p-4 hover:shadow-md transition-shadow";
+        requestCard.id = `r-${request.id}`;
+        requestCard.innerHTML = `
+            <div class="flex justify-between items-start">
+                <div>
+                    <h3 class="font-bold text-gray-800">Request #${request.id}</h3>
+                    <p class="text-sm text-gray-600"><span class="font-semibold">Service:</span> ${request.serviceName}</p>
+                    <p class="text-sm text-gray-600"><span class="font-semibold">Query Count:</span> ${request.estimatedQueryCount}</p>
+                    <p class="text-sm text-gray-600"><span class="font-semibold">Max Latency SLA:</span> ${request.maxLatencySLA}</p>
+                    <p class="text-sm text-gray-600"><span class="font-semibold">Source Region:</span> ${request.sourceRegion || 'N/A'}</p>
+                    <p class="text-sm text-gray-600"><span class="font-semibold">Date:</span> ${request.date || 'N/A'}</p>
+                </div>
+            </div>
+        `;
+        requestsContainer.appendChild(requestCard);
+    });
+
+    renderDeployments(job);
+
+    // Display Available Dates
+    const datesContainer = document.getElementById("dates_container");
+    job.availableDates.forEach(date => {
+        const dateTag = document.createElement("span");
+        dateTag.className = "px-3 py-1 bg-blue-100 text-blue-800 rounded-full text-sm";
+        dateTag.textContent = new Date(date).toLocaleString();
+        datesContainer.appendChild(dateTag);
+    });
+
+
+    // Add explanation for costs
+    fetchExplanation(id);
+
+    // Live updates while solving, each event only carries the deployments that changed
+    if (job.solverStatus !== "NOT_SOLVING") {
+        const events = new EventSource(`/api/${id}/events`);
+        events.addEventListener("bestSolution", event => {
+            const update = JSON.parse(event.data);
+            const byId = new Map(job.deployments.map(d => [d.id, d]));
+            update.changedDeployments.forEach(d => byId.set(d.id, d));
+            job.deployments = [...byId.values()];
+            job.score = update.score;
+            job.solverStatus = update.solverStatus;
+            renderStatus(job.solverStatus, job.score);
+            renderServers(job);
+            renderDeployments(job);
+            if (job.solverStatus === "NOT_SOLVING") {
+                events.close();
+                // The explanation of the final solution replaces the one loaded with the page
+                document.querySelectorAll(".explanation-data").forEach(element => element.remove());
+                cachedExplanation = null;
+                fetchExplanation(id);
+            }
+        });
+        events.addEventListener("solverError", event => {
+            events.close();
+            renderStatus("FAILED", event.data);
+        });
+        // The connection dropped
+        events.addEventListener("error", () => events.close());
+    }
+});
+
+function renderStatus(solverStatus, score) {
+    const statusElement = document.getElementById("job_status");
+    statusElement.textContent = solverStatus;
+
+    // Color code status
+    if (solverStatus === "SOLVING_ACTIVE") {
+        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-yellow-100 text-yellow-800";
+    } else if (solverStatus === "SOLVED") {
+        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-green-100 text-green-800";
+    } else {
+        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-gray-100 text-gray-800";
+    }
+
+    document.getElementById("job_score").textContent = score;
+}
+
+function renderServers(job) {
     // Get server deployments
     const serverDeployments = {};
 
@@ -27,25 +131,9 @@ document.addEventListener("DOMContentLoaded", async () => {
             });
         });
 
-    // Display Job ID and Status
-    document.getElementById("job_id").textContent = id;
-
-    const statusElement = document.getElementById("job_status");
-    statusElement.textContent = job.solverStatus;
-
-    // Color code status
-    if (job.solverStatus === "SOLVING_ACTIVE") {
-        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-yellow-100 text-yellow-800";
-    } else if (job.solverStatus === "SOLVED") {
-        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-green-100 text-green-800";
-    } else {
-        statusElement.className = "px-4 py-2 rounded-full text-sm font-semibold bg-gray-100 text-gray-800";
-    }
-
-    document.getElementById("job_score").textContent = job.score;
-
     // Display Servers
     const serversContainer = document.getElementById("servers_container");
+    serversContainer.innerHTML = "";
 
     job.serverList.forEach(server => {
         const serverCard = document.createElement("div");
@@ -85,46 +173,12 @@ document.addEventListener("DOMContentLoaded", async () => {
 
         serversContainer.appendChild(serverCard);
     });
+}
 
-    // Display Services
-    const servicesContainer = document.getElementById("services_container");
-    job.serviceList.forEach(service => {
-        const serviceCard = document.createElement("div");
-        serviceCard.className = "border border-gray-200 rounded-lg p-4 hover:shadow-md transition-shadow";
-        serviceCard.innerHTML = `
-            <h3 class="font-bold text-lg text-green-600 mb-2">${service.name}</h3>
-            <p class="text-sm text-gray-600"><span class="font-semibold">ID:</span> ${service.id}</p>
-            <p class="text-sm text-gray-600"><span class="font-semibold">CPU/Instance:</span> ${service.cpuPerInstance}</p>
-            <p class="text-sm text-gray-600"><span class="font-semibold">RAM/Instance:</span> ${service.ramPerInstance}</p>
-            <p class="text-sm text-gray-600"><span class="font-semibold">Storage/Instance:</span> ${service.storagePerInstance}</p>
-            <p class="text-sm text-gray-600"><span class="font-semibold">Max Requests:</span> ${service.maxRequestsPerInstance}</p>
-        `;
-        servicesContainer.appendChild(serviceCard);
-    });
-
-    // Display Requests
-    const requestsContainer = document.getElementById("requests_container");
-    job.requests.forEach(request => {
-        const requestCard = document.createElement("div");
-        requestCard.className = "border border-gray-200 rounded-lg p-4 hover:shadow-md transition-shadow";
-        requestCard.id = `r-${request.id}`;
-        requestCard.innerHTML = `
-            <div class="flex justify-between items-start">
-                <div>
-                    <h3 class="font-bold text-gray-800">Request #${request.id}</h3>
-                    <p class="text-sm text-gray-600"><span class="font-semibold">Service:</span> ${request.serviceName}</p>
-                    <p class="text-sm text-gray-600"><span class="font-semibold">Query Count:</span> ${request.estimatedQueryCount}</p>
-                    <p class="text-sm text-gray-600"><span class="font-semibold">Max Latency SLA:</span> ${request.maxLatencySLA}</p>
-                    <p class="text-sm text-gray-600"><span class="font-semibold">Source Region:</span> ${request.sourceRegion || 'N/A'}</p>
-                    <p class="text-sm text-gray-600"><span class="font-semibold">Date:</span> ${request.date || 'N/A'}</p>
-                </div>
-            </div>
-        `;
-        requestsContainer.appendChild(requestCard);
-    });
-
+function renderDeployments(job) {
     // Display Deployments
     const deploymentsContainer = document.getElementById("deployments_container");
+    deploymentsContainer.innerHTML = "";
     job.deployments.filter(d => d.active).forEach(deployment => {
         const deploymentCard = document.createElement("div");
         const activeClass = deployment.active ? "border-green-400 bg-green-50" : "border-gray-200";
@@ -143,23 +197,10 @@ document.addEventListener("DOMContentLoaded", async () => {
                 <p class="text-gray-600"><span class="font-semibold">Server:</span> ${serverName}</p>
                 <p class="text-gray-600"><span class="font-semibold">From:</span> ${new Date(deployment.dateFrom).toLocaleDateString()}</p>
                 <p class="text-gray-600"><span class="font-semibold">To:</span> ${new Date(deployment.dateTo).toLocaleDateString()}</p>
-                <p class="text-gray-600"><span class="font-semibold">Requests:</span> ${deployment.requestCount}</p>
+                <p class="text-gray-600"><span class="font-semibold">Requests:</span> ${deployment.requests.length}</p>
                 <p class="text-gray-600"><span class="font-semibold">Request IDs:</span> ${deployment.requests.length > 0 ? deployment.requests.join(', ') : 'None'}</p>
             </div>
         `;
         deploymentsContainer.appendChild(deploymentCard);
     });
-
-    // Display Available Dates
-    const datesContainer = document.getElementById("dates_container");
-    job.availableDates.forEach(date => {
-        const dateTag = document.createElement("span");
-        dateTag.className = "px-3 py-1 bg-blue-100 text-blue-800 rounded-full text-sm";
-        dateTag.textContent = new Date(date).toLocaleString();
-        datesContainer.appendChild(dateTag);
-    });
-
-
-    // Add explanation for costs
-    fetchExplanation(id);
-});
\ No newline at end of file
+}
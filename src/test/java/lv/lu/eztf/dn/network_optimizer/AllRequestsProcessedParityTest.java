@@ -0,0 +1,116 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintCollectors;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static ai.timefold.solver.core.api.score.stream.Joiners.equal;
+import static ai.timefold.solver.core.api.score.stream.Joiners.filtering;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the indexed allRequestsProcessed constraint penalizes exactly like the
+ * original filtering based version on every dataset under data/, for a spread of random assignments.
+ */
+class AllRequestsProcessedParityTest {
+
+    private static final String CONSTRAINT_NAME = "Service capacity violated during request moments";
+
+    @Test
+    void indexedJoinsMatchLegacyFilteringJoins() throws IOException {
+        SolutionManager<DeploymentPlan, HardSoftLongScore> current = solutionManager(NetworkOptimizationConstraintProvider.class);
+        SolutionManager<DeploymentPlan, HardSoftLongScore> legacy = solutionManager(LegacyConstraintProvider.class);
+
+        File[] files = new File("data").listFiles((dir, name) -> name.endsWith(".json"));
+        assertTrue(files != null && files.length > 0, "No datasets found under data/");
+        ObjectMapper mapper = new ObjectMapper();
+        for (File file : files) {
+            for (int seed = 0; seed < 10; seed++) {
+                DeploymentPlan plan = mapper.readValue(file, DeploymentPlan.class);
+                assignRandomly(plan, new Random(seed));
+
+                HardSoftLongScore expected = legacy.analyze(plan).getConstraintAnalysis(CONSTRAINT_NAME).score();
+                HardSoftLongScore actual = current.analyze(plan).getConstraintAnalysis(CONSTRAINT_NAME).score();
+                assertEquals(expected, actual, file.getName() + " with seed " + seed);
+            }
+        }
+    }
+
+    private static SolutionManager<DeploymentPlan, HardSoftLongScore> solutionManager(Class<? extends ConstraintProvider> provider) {
+        return SolutionManager.create(SolverFactory.create(new SolverConfig()
+                .withSolutionClass(DeploymentPlan.class)
+                .withEntityClasses(Deployment.class, Request.class)
+                .withConstraintProviderClass(provider)));
+    }
+
+    private static void assignRandomly(DeploymentPlan plan, Random random) {
+        List<Date> dates = plan.getAvailableDates();
+        for (Deployment deployment : plan.getDeployments()) {
+            // Leave some slots empty so partially initialized plans are covered as well
+            if (random.nextInt(5) == 0) {
+                continue;
+            }
+            deployment.setService(plan.getServiceList().get(random.nextInt(plan.getServiceList().size())));
+            deployment.setServer(plan.getServerList().get(random.nextInt(plan.getServerList().size())));
+            deployment.setDateFrom(dates.get(random.nextInt(dates.size())));
+            deployment.setDateTo(dates.get(random.nextInt(dates.size())));
+        }
+        for (Request request : plan.getRequests()) {
+            if (random.nextInt(6) > 0) {
+                plan.getDeployments().get(random.nextInt(plan.getDeployments().size())).getRequests().add(request);
+            }
+        }
+    }
+
+    /**
+     * The constraint as it was before the closure table and request owner shadow variable existed
+     * (on the epoch-day time axis).
+     */
+    public static class LegacyConstraintProvider implements ConstraintProvider {
+
+        @Override
+        public Constraint[] defineConstraints(ConstraintFactory factory) {
+            return new Constraint[] {
+                    factory.forEach(Deployment.class)
+                            .filter(depA -> depA.getService() != null
+                                    && depA.getRequests() != null
+                                    && depA.getServer() != null)
+                            .join(Request.class,
+                                    filtering((parent, child) -> parent.getRequests().contains(child)))
+                            .filter((depA, req) -> depA.getDayFrom() != null
+                                    && depA.getDayTo() != null
+                                    && req.getDay() >= depA.getDayFrom()
+                                    && req.getDay() <= depA.getDayTo())
+                            .join(Service.class, filtering(
+                                    (depA, req, serviceX) -> depA.getService().totalContainedServices().contains(serviceX)))
+                            .join(Deployment.class,
+                                    equal((depA, req, serviceX) -> serviceX, Deployment::getService),
+                                    equal((depA, req, serviceX) -> depA.getServer(), Deployment::getServer),
+                                    filtering((depA, req, serviceX, depX) -> depX.getDayFrom() != null
+                                            && depX.getDayTo() != null
+                                            && req.getDay() >= depX.getDayFrom()
+                                            && req.getDay() <= depX.getDayTo()))
+                            .groupBy((depA, req, serviceX, depX) -> depX,
+                                    (depA, req, serviceX, depX) -> req.getDate(),
+                                    ConstraintCollectors.sum((depA, req, serviceX, depX) -> req.getEstimatedQueryCount()))
+                            .filter((depX, date, demand) -> demand > depX.getService().maxRequests())
+                            .penalize(HardSoftLongScore.ONE_HARD,
+                                    (depX, date, demand) -> demand - depX.getService().maxRequests())
+                            .asConstraint(CONSTRAINT_NAME)
+            };
+        }
+    }
+}
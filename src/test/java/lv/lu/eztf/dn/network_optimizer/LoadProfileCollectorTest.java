@@ -0,0 +1,94 @@
+package lv.lu.eztf.dn.network_optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the incremental load profile against a brute-force per-day sum of the load above capacity,
+ * as elements come and go through the collector's undo.
+ */
+class LoadProfileCollectorTest {
+
+    private record Interval(int start, int end, long load) {
+    }
+
+    private static final long CAPACITY = 10;
+
+    private final LoadProfileCollector<Interval> collector = LoadProfileCollector.excessLoad(
+            Interval::start, Interval::end, Interval::load, interval -> CAPACITY);
+
+    @Test
+    void overlappingIntervals() {
+        assertExcess(List.of(new Interval(1, 5, 6), new Interval(3, 8, 7)));
+    }
+
+    @Test
+    void nestedIntervals() {
+        assertExcess(List.of(new Interval(1, 10, 4), new Interval(3, 7, 5), new Interval(4, 5, 6)));
+    }
+
+    @Test
+    void identicalStartDays() {
+        assertExcess(List.of(new Interval(2, 2, 11), new Interval(2, 4, 3), new Interval(2, 9, 8)));
+    }
+
+    @Test
+    void removedIntervalLeavesNoTrace() {
+        LoadProfileCollector.LoadProfile profile = collector.supplier().get();
+        BiFunction<LoadProfileCollector.LoadProfile, Interval, Runnable> accumulator = collector.accumulator();
+        accumulator.apply(profile, new Interval(1, 5, 6));
+        Runnable undo = accumulator.apply(profile, new Interval(3, 8, 7));
+        assertEquals(bruteForceExcess(List.of(new Interval(1, 5, 6), new Interval(3, 8, 7))),
+                collector.finisher().apply(profile));
+        undo.run();
+        assertEquals(0L, collector.finisher().apply(profile));
+    }
+
+    @Test
+    void randomAddsAndRemovesMatchBruteForce() {
+        Random random = new Random(37);
+        LoadProfileCollector.LoadProfile profile = collector.supplier().get();
+        BiFunction<LoadProfileCollector.LoadProfile, Interval, Runnable> accumulator = collector.accumulator();
+        List<Interval> present = new ArrayList<>();
+        List<Runnable> undos = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            if (present.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(20);
+                Interval interval = new Interval(start, start + random.nextInt(6), 1 + random.nextInt(8));
+                present.add(interval);
+                undos.add(accumulator.apply(profile, interval));
+            } else {
+                int index = random.nextInt(present.size());
+                present.remove(index);
+                undos.remove(index).run();
+            }
+            assertEquals(bruteForceExcess(present), collector.finisher().apply(profile), "step " + step);
+        }
+    }
+
+    private void assertExcess(List<Interval> intervals) {
+        LoadProfileCollector.LoadProfile profile = collector.supplier().get();
+        for (Interval interval : intervals) {
+            collector.accumulator().apply(profile, interval);
+        }
+        assertEquals(bruteForceExcess(intervals), collector.finisher().apply(profile));
+    }
+
+    private static long bruteForceExcess(List<Interval> intervals) {
+        Map<Integer, Long> loadByDay = new HashMap<>();
+        for (Interval interval : intervals) {
+            for (int day = interval.start(); day <= interval.end(); day++) {
+                loadByDay.merge(day, interval.load(), Long::sum);
+            }
+        }
+        long excess = 0L;
+        for (long load : loadByDay.values()) {
+            excess += Math.max(0L, load - CAPACITY);
+        }
+        return excess;
+    }
+}
@@ -0,0 +1,114 @@
+package lv.lu.eztf.dn.network_optimizer.benchmark;
+
+import lv.lu.eztf.dn.network_optimizer.benchmark.BenchmarkSummary.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks which differences between a benchmark run and its baseline count as regressions.
+ */
+class BenchmarkSummaryTest {
+
+    private static final double THRESHOLD = 0.1;
+
+    @Test
+    void equalRunsHaveNoRegression() {
+        Entry entry = entry("0hard/-1000soft", true, 1000L, 500L);
+
+        assertEquals(List.of(), BenchmarkSummary.regressions(List.of(entry), List.of(entry), THRESHOLD));
+    }
+
+    @Test
+    void lostFeasibility() {
+        List<String> regressions = regressions(entry("0hard/-1000soft", true, 1000L, 500L),
+                entry("-1hard/-900soft", false, 1000L, null));
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("no longer feasible"), regressions.toString());
+    }
+
+    @Test
+    void hardScoreDrop() {
+        List<String> regressions = regressions(entry("-1hard/-1000soft", false, 1000L, null),
+                entry("-2hard/0soft", false, 1000L, null));
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("hard score dropped"), regressions.toString());
+    }
+
+    @Test
+    void softScoreDropBeyondThreshold() {
+        Entry baseline = entry("0hard/-1000soft", true, 1000L, 500L);
+
+        assertEquals(List.of(), regressions(baseline, entry("0hard/-1100soft", true, 1000L, 500L)));
+        List<String> regressions = regressions(baseline, entry("0hard/-1101soft", true, 1000L, 500L));
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("soft score dropped"), regressions.toString());
+        // A better hard score makes up for any soft score
+        assertEquals(List.of(), regressions(entry("-1hard/0soft", false, 1000L, null),
+                entry("0hard/-5000soft", true, 1000L, null)));
+    }
+
+    @Test
+    void speedDropBeyondThreshold() {
+        Entry baseline = entry("0hard/0soft", true, 1000L, 500L);
+
+        assertEquals(List.of(), regressions(baseline, entry("0hard/0soft", true, 900L, 500L)));
+        List<String> regressions = regressions(baseline, entry("0hard/0soft", true, 899L, 500L));
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("score calculation speed dropped"), regressions.toString());
+    }
+
+    @Test
+    void timeToFeasibleGrowthBeyondThreshold() {
+        Entry baseline = entry("0hard/0soft", true, 1000L, 500L);
+
+        assertEquals(List.of(), regressions(baseline, entry("0hard/0soft", true, 1000L, 550L)));
+        List<String> regressions = regressions(baseline, entry("0hard/0soft", true, 1000L, 551L));
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("time to feasible grew"), regressions.toString());
+    }
+
+    @Test
+    void failedRunIsARegression() {
+        List<String> regressions = regressions(entry("-1hard/0soft", false, 1000L, null),
+                entry(null, false, null, null));
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("failed"), regressions.toString());
+    }
+
+    @Test
+    void nullValuesAreNotCompared() {
+        // Neither speed nor time to feasible were measured in the baseline, nor in this run
+        assertEquals(List.of(), regressions(entry("0hard/0soft", true, null, null),
+                entry("0hard/0soft", true, 1L, 100_000L)));
+        assertEquals(List.of(), regressions(entry("0hard/0soft", true, 1000L, 500L),
+                entry("0hard/0soft", true, null, null)));
+    }
+
+    @Test
+    void missingOrFailedBaselineIsSkipped() {
+        Entry other = new Entry("other", "test1", "0hard/0soft", true, 1000L, 500L);
+        Entry worse = entry("-5hard/0soft", false, 1L, null);
+
+        // Only in the current run
+        assertEquals(List.of(), BenchmarkSummary.regressions(List.of(other), List.of(worse), THRESHOLD));
+        assertEquals(List.of(), BenchmarkSummary.regressions(List.of(), List.of(worse), THRESHOLD));
+        // Only in the baseline
+        assertEquals(List.of(), BenchmarkSummary.regressions(List.of(worse), List.of(), THRESHOLD));
+        // The baseline failed itself, so there is no score to drop from
+        assertEquals(List.of(), regressions(entry(null, false, null, null), worse));
+    }
+
+    private static List<String> regressions(Entry baseline, Entry current) {
+        return BenchmarkSummary.regressions(List.of(baseline), List.of(current), THRESHOLD);
+    }
+
+    private static Entry entry(String bestScore, boolean feasible, Long scoreCalculationSpeed, Long timeToFeasibleMillis) {
+        return new Entry("LAHC", "test1", bestScore, feasible, scoreCalculationSpeed, timeToFeasibleMillis);
+    }
+}
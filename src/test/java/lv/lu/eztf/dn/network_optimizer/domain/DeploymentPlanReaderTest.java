@@ -0,0 +1,100 @@
+package lv.lu.eztf.dn.network_optimizer.domain;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the streaming reader reads plans like the ObjectMapper binding it replaces, from JSON and from Smile,
+ * and that references it can't resolve fail the read.
+ */
+class DeploymentPlanReaderTest {
+
+    private static final File DATASET = new File("data/benchmark2.json");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void jsonMatchesObjectMapper() throws IOException {
+        JsonNode expected = mapper.valueToTree(mapper.readValue(DATASET, DeploymentPlan.class));
+        try (InputStream in = new FileInputStream(DATASET)) {
+            assertEquals(expected, mapper.valueToTree(DeploymentPlanReader.read(new JsonFactory(), in)));
+        }
+    }
+
+    @Test
+    void smileMatchesObjectMapper() throws IOException {
+        JsonNode expected = mapper.valueToTree(mapper.readValue(DATASET, DeploymentPlan.class));
+        SmileFactory smileFactory = new SmileFactory();
+        byte[] smile = new ObjectMapper(smileFactory).writeValueAsBytes(mapper.readTree(DATASET));
+        DeploymentPlan plan = DeploymentPlanReader.read(smileFactory, new ByteArrayInputStream(smile));
+        assertEquals(expected, mapper.valueToTree(plan));
+    }
+
+    @Test
+    void forwardReferencesResolveToTheirDefinitions() throws IOException {
+        DeploymentPlan plan = read("""
+                {
+                  "deployments": [{"id": 1, "service": 2, "server": 1, "requests": [1]}],
+                  "serverList": [{"id": 1, "name": "s1", "cpuCores": 8, "region": "eu", "cost": 1}],
+                  "serviceList": [
+                    {"id": 2, "name": "web", "dependencies": [1]},
+                    {"id": 1, "name": "db", "dependencies": []}
+                  ],
+                  "requests": [{"id": 1, "serviceName": "web", "sourceRegion": "eu"}],
+                  "costs": [{"id": 1, "daily": 10.0, "allocation": 5.0, "deallocation": 2.0}],
+                  "regions": [{"name": "eu", "latency": 3}]
+                }
+                """);
+        Deployment deployment = plan.getDeployments().get(0);
+        Service web = plan.getServiceList().get(0);
+        Service db = plan.getServiceList().get(1);
+        Server server = plan.getServerList().get(0);
+        assertSame(web, deployment.getService());
+        assertSame(server, deployment.getServer());
+        assertSame(plan.getRequests().get(0), deployment.getRequests().get(0));
+        assertSame(db, web.getDependencies().get(0));
+        assertEquals("db", db.getName());
+        assertSame(plan.getCosts().get(0), server.getCost());
+        assertEquals(0, server.getCost().getDaily().compareTo(BigDecimal.TEN));
+        assertSame(plan.getRegions().get(0), server.getRegion());
+        assertSame(server.getRegion(), plan.getRequests().get(0).getSourceRegion());
+        assertEquals(3, server.getRegion().getLatency());
+    }
+
+    @Test
+    void undefinedReferencesFail() {
+        JsonParseException exception = assertThrows(JsonParseException.class, () -> read("""
+                {
+                  "regions": [{"name": "eu", "latency": 3}],
+                  "costs": [],
+                  "serverList": [{"id": 1, "name": "s1", "region": "us", "cost": 7}],
+                  "serviceList": [{"id": 1, "name": "web", "dependencies": [9]}],
+                  "deployments": [{"id": 1, "service": 1, "server": 1, "requests": [4]}]
+                }
+                """));
+        String message = exception.getOriginalMessage();
+        assertTrue(message.contains("region 'us'"), message);
+        assertTrue(message.contains("cost 7"), message);
+        assertTrue(message.contains("service 9"), message);
+        assertTrue(message.contains("request 4"), message);
+        assertFalse(message.contains("service 1"), message);
+    }
+
+    private static DeploymentPlan read(String json) throws IOException {
+        return DeploymentPlanReader.read(new JsonFactory(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,56 @@
+package lv.lu.eztf.dn.network_optimizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the precomputed dependency closures: cycles are refused and a change anywhere in the graph is seen by
+ * every service resolved together with the changed one.
+ */
+class ServiceTest {
+
+    @Test
+    void cycleIsRefused() {
+        Service a = service(1, "a", 10);
+        Service b = service(2, "b", 10);
+        Service c = service(3, "c", 10);
+        a.dependsOn(b);
+        b.dependsOn(c);
+        c.dependsOn(a);
+
+        assertThrows(IllegalStateException.class, () -> Service.resolveDependencyClosures(List.of(a, b, c)));
+    }
+
+    @Test
+    void closureFollowsDependsOnOfATransitiveDependency() {
+        Service a = service(1, "a", 10);
+        Service b = service(2, "b", 8);
+        Service c = service(3, "c", 6);
+        Service d = service(4, "d", 2);
+        a.dependsOn(b);
+        b.dependsOn(c);
+        Service.resolveDependencyClosures(List.of(a, b, c, d));
+        assertEquals(Set.of(a, b, c), Set.copyOf(a.totalContainedServices()));
+        assertEquals(6, a.maxRequests());
+
+        c.dependsOn(d);
+
+        assertEquals(Set.of(a, b, c, d), Set.copyOf(a.totalContainedServices()));
+        assertTrue(a.contains(d));
+        assertEquals(2, a.maxRequests());
+
+        Service.resolveDependencyClosures(List.of(a, b, c, d));
+        assertEquals(Set.of(a, b, c, d), Set.copyOf(a.totalContainedServices()));
+        assertTrue(a.contains(d));
+        assertFalse(d.contains(a));
+        assertEquals(2, a.maxRequests());
+    }
+
+    private static Service service(int id, String name, int maxRequestsPerInstance) {
+        return new Service(id, name, 1, 1, 1, maxRequestsPerInstance, null);
+    }
+}
@@ -0,0 +1,83 @@
+package lv.lu.eztf.dn.network_optimizer.rest;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the conditional GET of a job's solution: an unchanged job answers a matching If-None-Match with 304,
+ * a new best solution version gives a new ETag.
+ */
+class NetworkOptimizerApiControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JobStore jobStore;
+    private NetworkOptimizerApiController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        SolverFactory<DeploymentPlan> solverFactory = SolverFactory.create(solverConfig);
+        jobStore = new SpillingJobStore(Long.MAX_VALUE, 0, null, objectMapper);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("solverConfig", solverConfig,
+                "jobStore", jobStore));
+        SolutionManager<DeploymentPlan, HardSoftLongScore> solutionManager = SolutionManager.create(solverFactory);
+        controller = new NetworkOptimizerApiController(SolverManager.create(solverFactory), solutionManager,
+                beanFactory.getBeanProvider(SolverConfig.class), objectMapper, beanFactory.getBeanProvider(JobStore.class),
+                512, "", 0, 1, 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.closeSolverManagers();
+    }
+
+    @Test
+    void unchangedJobIsNotModifiedUntilItsVersionChanges() throws Exception {
+        jobStore.put("job", Job.ofSolution(plan(), 1));
+
+        String eTag = mockMvc.perform(get("/api/job"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        mockMvc.perform(get("/api/job").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        jobStore.put("job", Job.ofSolution(plan(), 2));
+
+        String newETag = mockMvc.perform(get("/api/job").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+        mockMvc.perform(get("/api/job").header(HttpHeaders.IF_NONE_MATCH, newETag))
+                .andExpect(status().isNotModified());
+    }
+
+    private DeploymentPlan plan() throws IOException {
+        return objectMapper.readValue(new File("data/test3.json"), DeploymentPlan.class);
+    }
+}
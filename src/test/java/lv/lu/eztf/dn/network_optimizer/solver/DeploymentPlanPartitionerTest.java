@@ -0,0 +1,125 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every part the partitioner hands out has servers of its own and that servers already in use
+ * stay with the part of their deployments.
+ */
+class DeploymentPlanPartitionerTest {
+
+    private final Region region = new Region("eu", 1);
+    private final Cost cost = new Cost(1, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE);
+
+    @Test
+    void morePartsThanCompatibleServers() {
+        List<Service> services = List.of(service(1, "a"), service(2, "b"), service(3, "c"));
+        // Only the first server fits any service
+        List<Server> servers = List.of(server(1, 8), server(2, 1), server(3, 1));
+        List<Request> requests = List.of(request(1, "a"), request(2, "b"), request(3, "c"), request(4, "c"));
+        DeploymentPlan plan = plan(servers, services, requests, deployments(6));
+
+        List<DeploymentPlan> parts = new DeploymentPlanPartitioner().split(plan);
+
+        assertFalse(parts.isEmpty());
+        assertPartition(plan, parts);
+        for (DeploymentPlan part : parts) {
+            assertTrue(part.getServerList().stream()
+                    .anyMatch(server -> part.getServiceList().stream().allMatch(server::canHost)),
+                    "part without a server for its services");
+        }
+    }
+
+    @Test
+    void noServerAtAllIsNotSplit() {
+        List<Service> services = List.of(service(1, "a"), service(2, "b"));
+        List<Request> requests = List.of(request(1, "a"), request(2, "b"));
+        DeploymentPlan plan = plan(new ArrayList<>(), services, requests, deployments(2));
+
+        assertEquals(List.of(), new DeploymentPlanPartitioner().split(plan));
+    }
+
+    @Test
+    void partsSharingAUsedServerAreMerged() {
+        Service a = service(1, "a");
+        Service b = service(2, "b");
+        Service c = service(3, "c");
+        List<Server> servers = List.of(server(1, 8), server(2, 8), server(3, 8));
+        List<Deployment> deployments = deployments(5);
+        deployments.get(0).setService(a);
+        deployments.get(0).setServer(servers.get(0));
+        deployments.get(1).setService(b);
+        deployments.get(1).setServer(servers.get(0));
+        List<Request> requests = List.of(request(1, "a"), request(2, "b"), request(3, "c"));
+        DeploymentPlan plan = plan(servers, List.of(a, b, c), requests, deployments);
+
+        List<DeploymentPlan> parts = new DeploymentPlanPartitioner().split(plan);
+
+        assertPartition(plan, parts);
+        DeploymentPlan shared = parts.stream()
+                .filter(part -> part.getServerList().contains(servers.get(0)))
+                .findFirst().orElseThrow();
+        Set<Integer> sharedServices = new HashSet<>();
+        shared.getServiceList().forEach(service -> sharedServices.add(service.getId()));
+        assertTrue(sharedServices.containsAll(Set.of(1, 2)), sharedServices.toString());
+    }
+
+    /**
+     * Every part has a server, no server or request is in two parts and every request is in one.
+     */
+    private static void assertPartition(DeploymentPlan plan, List<DeploymentPlan> parts) {
+        Set<Server> servers = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Integer> requestIds = new HashSet<>();
+        for (DeploymentPlan part : parts) {
+            assertFalse(part.getServerList().isEmpty(), "part without servers");
+            for (Server server : part.getServerList()) {
+                assertTrue(servers.add(server), "server " + server.getId() + " in two parts");
+            }
+            for (Request request : part.getRequests()) {
+                assertTrue(requestIds.add(request.getId()), "request " + request.getId() + " in two parts");
+            }
+        }
+        assertEquals(plan.getRequests().size(), requestIds.size());
+    }
+
+    private DeploymentPlan plan(List<Server> servers, List<Service> services, List<Request> requests,
+                                List<Deployment> deployments) {
+        DeploymentPlan plan = new DeploymentPlan();
+        plan.setRegions(List.of(region));
+        plan.setCosts(List.of(cost));
+        plan.setServerList(servers);
+        plan.setServiceList(services);
+        plan.setRequests(requests);
+        plan.setDeployments(deployments);
+        return plan;
+    }
+
+    private static Service service(int id, String name) {
+        return new Service(id, name, 4, 4, 4, 10, null);
+    }
+
+    private Server server(int id, int size) {
+        return new Server(id, "server" + id, size, size, size, region, cost);
+    }
+
+    private Request request(int id, String serviceName) {
+        return new Request(id, serviceName, new Date(0), 10, 100, region);
+    }
+
+    private static List<Deployment> deployments(int count) {
+        List<Deployment> deployments = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Deployment deployment = new Deployment();
+            deployment.setId(i);
+            deployment.setRequests(new ArrayList<>());
+            deployments.add(deployment);
+        }
+        return deployments;
+    }
+}
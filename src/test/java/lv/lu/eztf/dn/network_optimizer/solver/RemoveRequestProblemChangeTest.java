@@ -0,0 +1,59 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lv.lu.eztf.dn.network_optimizer.domain.DeploymentPlan;
+import lv.lu.eztf.dn.network_optimizer.domain.Request;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Removes an assigned request from a job solving with FULL_ASSERT, which fails the solve if the list variable
+ * changed behind the solver's back.
+ */
+class RemoveRequestProblemChangeTest {
+
+    @Test
+    void removesAnAssignedRequestUnderFullAssert() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(DefaultPhases.SOLVER_CONFIG_RESOURCE)
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(4L));
+        DeploymentPlan problem = new ObjectMapper().readValue(new File("data/test3.json"), DeploymentPlan.class);
+
+        CompletableFuture<Integer> assigned = new CompletableFuture<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (SolverManager<DeploymentPlan, String> solverManager =
+                     SolverManager.create(SolverFactory.create(solverConfig))) {
+            SolverJob<DeploymentPlan, String> job = solverManager.solveBuilder()
+                    .withProblemId("job")
+                    .withProblem(problem)
+                    .withBestSolutionConsumer(best -> best.getRequests().stream()
+                            .filter(request -> request.getDeployment() != null)
+                            .findFirst()
+                            .ifPresent(request -> assigned.complete(request.getId())))
+                    .withExceptionHandler((jobId, exception) -> failure.set(exception))
+                    .run();
+            int requestId = assigned.get(30, TimeUnit.SECONDS);
+            solverManager.addProblemChange("job", new RemoveRequestProblemChange(requestId)).get(30, TimeUnit.SECONDS);
+            DeploymentPlan solution = job.getFinalBestSolution();
+
+            assertNull(failure.get());
+            assertTrue(solution.getRequests().stream().noneMatch(request -> request.getId() == requestId));
+            assertTrue(solution.getDeployments().stream()
+                    .flatMap(deployment -> deployment.getRequests().stream())
+                    .mapToInt(Request::getId)
+                    .noneMatch(id -> id == requestId));
+        }
+    }
+}
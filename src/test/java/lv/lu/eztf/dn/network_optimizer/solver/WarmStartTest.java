@@ -0,0 +1,108 @@
+package lv.lu.eztf.dn.network_optimizer.solver;
+
+import lv.lu.eztf.dn.network_optimizer.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a warm start carries the earlier assignments over by id without overriding what the new problem
+ * assigns itself.
+ */
+class WarmStartTest {
+
+    private final Region region = new Region("eu", 1);
+    private final Cost cost = new Cost(1, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE);
+
+    @Test
+    void matchedDeploymentTakesOverTheEarlierAssignment() {
+        DeploymentPlan base = plan();
+        Deployment previous = base.getDeployments().get(0);
+        previous.setService(base.getServiceList().get(0));
+        previous.setServer(base.getServerList().get(1));
+        previous.setRequests(new ArrayList<>(List.of(base.getRequests().get(0), base.getRequests().get(1))));
+        DeploymentPlan problem = plan();
+
+        assertEquals(2, WarmStart.apply(base, problem));
+
+        Deployment deployment = problem.getDeployments().get(0);
+        assertSame(problem.getServiceList().get(0), deployment.getService());
+        assertSame(problem.getServerList().get(1), deployment.getServer());
+        assertEquals(List.of(problem.getRequests().get(0), problem.getRequests().get(1)), deployment.getRequests());
+        // The shadow variables are the solver's business
+        assertNull(problem.getRequests().get(0).getDeployment());
+    }
+
+    @Test
+    void unmatchedDeploymentsAndRequestsAreLeftAlone() {
+        DeploymentPlan base = plan();
+        Deployment previous = base.getDeployments().get(0);
+        previous.setService(base.getServiceList().get(0));
+        // Asks for another service and has no namesake in the new problem
+        previous.setRequests(new ArrayList<>(List.of(base.getRequests().get(2), request(9, "a"))));
+        DeploymentPlan problem = plan();
+        problem.setDeployments(new ArrayList<>(List.of(deployment(1), deployment(3))));
+        problem.getDeployments().get(1).setService(problem.getServiceList().get(1));
+        problem.getDeployments().get(1).getRequests().add(problem.getRequests().get(2));
+
+        assertEquals(1, WarmStart.apply(base, problem));
+
+        assertEquals(List.of(), problem.getDeployments().get(0).getRequests());
+        assertEquals(List.of(problem.getRequests().get(2)), problem.getDeployments().get(1).getRequests());
+        assertNull(problem.getDeployments().get(1).getServer());
+    }
+
+    @Test
+    void problemAssignmentsWinOverConflictingEarlierOnes() {
+        DeploymentPlan base = plan();
+        Deployment previous = base.getDeployments().get(0);
+        previous.setService(base.getServiceList().get(0));
+        previous.setServer(base.getServerList().get(0));
+        previous.setRequests(new ArrayList<>(List.of(base.getRequests().get(0), base.getRequests().get(1))));
+        DeploymentPlan problem = plan();
+        Deployment own = problem.getDeployments().get(0);
+        own.setServer(problem.getServerList().get(1));
+        own.setService(problem.getServiceList().get(0));
+        own.getRequests().add(problem.getRequests().get(3));
+        // The problem moved the second request to another deployment
+        Deployment other = problem.getDeployments().get(1);
+        other.setService(problem.getServiceList().get(0));
+        other.getRequests().add(problem.getRequests().get(1));
+
+        WarmStart.apply(base, problem);
+
+        assertSame(problem.getServerList().get(1), own.getServer());
+        assertEquals(List.of(problem.getRequests().get(3), problem.getRequests().get(0)), own.getRequests());
+        assertEquals(List.of(problem.getRequests().get(1)), other.getRequests());
+    }
+
+    private DeploymentPlan plan() {
+        DeploymentPlan plan = new DeploymentPlan();
+        plan.setRegions(List.of(region));
+        plan.setCosts(List.of(cost));
+        plan.setServerList(List.of(server(1), server(2)));
+        plan.setServiceList(List.of(new Service(1, "a", 4, 4, 4, 10, null), new Service(2, "b", 4, 4, 4, 10, null)));
+        plan.setRequests(List.of(request(1, "a"), request(2, "a"), request(3, "b"), request(4, "a")));
+        plan.setDeployments(new ArrayList<>(List.of(deployment(1), deployment(2))));
+        plan.setAvailableDates(List.of(new Date(0)));
+        return plan;
+    }
+
+    private Server server(int id) {
+        return new Server(id, "server" + id, 8, 8, 8, region, cost);
+    }
+
+    private Request request(int id, String serviceName) {
+        return new Request(id, serviceName, new Date(0), 10, 100, region);
+    }
+
+    private static Deployment deployment(int id) {
+        Deployment deployment = new Deployment();
+        deployment.setId(id);
+        deployment.setRequests(new ArrayList<>());
+        return deployment;
+    }
+}